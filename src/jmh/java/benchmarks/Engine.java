@@ -0,0 +1,117 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Handles to the reservation engine for the benchmarks.
+ *
+ * JMH does not accept benchmarks in the unnamed package, and classes of the unnamed package cannot be
+ * imported from a named one, so the engine is reached through method handles. The handles are static
+ * finals with erased types, which the JIT treats as constants and inlines like direct calls.
+ */
+final class Engine {
+    static final Class<?> HOTEL = load("Hotel");
+    static final Class<?> MONEY = load("Money");
+    static final Class<?> CLIENT_TYPE = load("ClientType");
+    static final Class<?> PRICE_SCHEDULE = load("PriceSchedule");
+    static final Class<?> STAY_DATES = load("StayDates");
+
+    static final MethodHandle NEW_RESERVATION = constructor("HotelReservation", Collection.class);
+    static final MethodHandle GET_CHEAPEST_HOTEL = method("HotelReservation", "getCheapestHotel", String.class, String.class);
+    static final MethodHandle NEW_PARSER = constructor("QueryParser");
+    static final MethodHandle PARSE = method("QueryParser", "parse", void.class, CharSequence.class);
+    static final MethodHandle STAY_OF = staticMethod("StayDates", "of", STAY_DATES, Collection.class);
+    static final MethodHandle COMPARE_PRICE = method("Hotel", "comparePrice", int.class, HOTEL, CLIENT_TYPE, STAY_DATES);
+    static final MethodHandle GET_SCHEDULE = method("Hotel", "getSchedule", PRICE_SCHEDULE, CLIENT_TYPE);
+    static final MethodHandle GET_RANGE_PRICE = method("PriceSchedule", "getPrice", MONEY, LocalDate.class, LocalDate.class);
+    static final MethodHandle NEW_MONEY = constructor("Money", long.class, Currency.class);
+    static final MethodHandle ADD = method("Money", "add", MONEY, MONEY);
+    static final MethodHandle MULTIPLY_LONG = method("Money", "multiply", MONEY, long.class);
+    static final MethodHandle MULTIPLY_DECIMAL = method("Money", "multiply", MONEY, BigDecimal.class);
+    static final MethodHandle DIVIDE_LONG = method("Money", "divide", MONEY, long.class);
+    static final MethodHandle COMPARE_TO = method("Money", "compareTo", int.class, Object.class);
+    private static final MethodHandle WITH_WEEKEND_SCHEDULE = staticMethod("Hotel", "withWeekendSchedule", HOTEL,
+            String.class, int.class, long.class, long.class, long.class, long.class);
+
+    private Engine() {}
+
+    private static Class<?> load(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Engine class " + name + " is not on the classpath", e);
+        }
+    }
+
+    private static MethodHandle constructor(String owner, Class<?>... parameters) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup()
+                    .findConstructor(load(owner), MethodType.methodType(void.class, parameters));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle method(String owner, String name, Class<?> returnType, Class<?>... parameters) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup()
+                    .findVirtual(load(owner), name, MethodType.methodType(returnType, parameters));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MethodHandle staticMethod(String owner, String name, Class<?> returnType, Class<?>... parameters) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup()
+                    .findStatic(load(owner), name, MethodType.methodType(returnType, parameters));
+            return handle.asType(handle.type().erase());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static Object clientType(String label) {
+        return Enum.valueOf((Class) CLIENT_TYPE, label.toUpperCase());
+    }
+
+    /**
+     * @return hotels with weekend schedules of random prices, the same ones for the same size
+     */
+    static List<Object> hotels(int size) throws Throwable {
+        Random random = new Random(size);
+        List<Object> hotels = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            hotels.add((Object) WITH_WEEKEND_SCHEDULE.invokeExact((Object) ("Hotel " + i),
+                    1 + random.nextInt(5), 50L + random.nextInt(200), 50L + random.nextInt(200),
+                    40L + random.nextInt(150), 40L + random.nextInt(150)));
+        }
+        return hotels;
+    }
+
+    /**
+     * @return a query in the input format of the engine, for a stay starting on the given date
+     */
+    static String query(String clientType, LocalDate start, int nights) {
+        StringBuilder query = new StringBuilder(clientType).append(':');
+        for (int i = 0; i < nights; i++) {
+            LocalDate date = start.plusDays(i);
+            query.append(i == 0 ? " " : ", ").append(String.format("%02d%s%04d(%s)", date.getDayOfMonth(),
+                    date.getMonth().name().substring(0, 1) + date.getMonth().name().substring(1, 3).toLowerCase(),
+                    date.getYear(), date.getDayOfWeek().name().substring(0, 3).toLowerCase()));
+        }
+        return query.toString();
+    }
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arithmetic of {@code Money}, for amounts that fit the exact long paths and amounts large enough to overflow them
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MoneyBenchmark {
+    @Param({ "12345", "9223372036854775" })
+    public long amount;
+
+    private Object money;
+    private Object other;
+    private final BigDecimal percentage = new BigDecimal("0.15");
+
+    @Setup
+    public void setUp() throws Throwable {
+        money = (Object) Engine.NEW_MONEY.invokeExact(amount, (Object) Currency.getInstance("BRL"));
+        other = (Object) Engine.NEW_MONEY.invokeExact(amount / 3, (Object) Currency.getInstance("BRL"));
+    }
+
+    @Benchmark
+    public Object add() throws Throwable {
+        return (Object) Engine.ADD.invokeExact(money, other);
+    }
+
+    @Benchmark
+    public Object multiplyByLong() throws Throwable {
+        return (Object) Engine.MULTIPLY_LONG.invokeExact(money, 7L);
+    }
+
+    @Benchmark
+    public Object multiplyByPercentage() throws Throwable {
+        return (Object) Engine.MULTIPLY_DECIMAL.invokeExact(money, (Object) percentage);
+    }
+
+    @Benchmark
+    public Object divideByLong() throws Throwable {
+        return (Object) Engine.DIVIDE_LONG.invokeExact(money, 7L);
+    }
+
+    @Benchmark
+    public int compareTo() throws Throwable {
+        return (int) Engine.COMPARE_TO.invokeExact(money, other);
+    }
+}
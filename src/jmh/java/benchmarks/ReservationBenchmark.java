@@ -0,0 +1,85 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Parsing and pricing of queries, over catalog sizes, stay lengths and client types
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ReservationBenchmark {
+    private static final LocalDate START = LocalDate.of(2009, 3, 16);
+
+    @Param({ "3", "100", "10000" })
+    public int catalogSize;
+    @Param({ "1", "7", "30" })
+    public int stayLength;
+    @Param({ "Regular", "Rewards" })
+    public String clientType;
+
+    private Object reservation;
+    private Object parser;
+    private String query;
+    private Object client;
+    private Object first;
+    private Object second;
+    private Object schedule;
+    private Object stay;
+    private LocalDate end;
+
+    @Setup
+    public void setUp() throws Throwable {
+        List<Object> hotels = Engine.hotels(catalogSize);
+        reservation = (Object) Engine.NEW_RESERVATION.invokeExact((Object) hotels);
+        parser = (Object) Engine.NEW_PARSER.invokeExact();
+        query = Engine.query(clientType, START, stayLength);
+        client = Engine.clientType(clientType);
+        first = hotels.get(0);
+        second = hotels.get(hotels.size() - 1);
+        schedule = (Object) Engine.GET_SCHEDULE.invokeExact(first, client);
+        List<LocalDate> dates = IntStream.range(0, stayLength).mapToObj(START::plusDays).collect(Collectors.toList());
+        stay = (Object) Engine.STAY_OF.invokeExact((Object) dates);
+        end = START.plusDays(stayLength - 1);
+    }
+
+    @Benchmark
+    public Object getCheapestHotel() throws Throwable {
+        return (Object) Engine.GET_CHEAPEST_HOTEL.invokeExact(reservation, (Object) query);
+    }
+
+    @Benchmark
+    public Object parse() throws Throwable {
+        Engine.PARSE.invokeExact(parser, (Object) query);
+        return parser;
+    }
+
+    @Benchmark
+    public int comparePrice() throws Throwable {
+        return (int) Engine.COMPARE_PRICE.invokeExact(first, second, client, stay);
+    }
+
+    @Benchmark
+    public Object schedulePrice() throws Throwable {
+        return (Object) Engine.GET_RANGE_PRICE.invokeExact(schedule, (Object) START, (Object) end);
+    }
+}
@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Answers a file of queries, one per line, into a file of answers, one per line in the same order.
+ *
+ * The input is memory-mapped in chunks that end on line boundaries, and the chunks are answered in parallel,
+ * parsing the queries straight from the mapped bytes. Answers are written in input order as soon as the chunks
+ * before them are done, with a bounded number of chunks in flight, so files of any size run in constant memory.
+ * A query that fails is answered with {@code ERROR} and the message of its error, without stopping the run.
+ */
+public final class BulkQueryRunner {
+    private static final int CHUNK_SIZE = 4 << 20;
+    private static final int SCAN_SIZE = 8 << 10;
+
+    private final HotelReservation reservation;
+    private final int threads;
+    private final int chunkSize;
+
+    public BulkQueryRunner(HotelReservation reservation) {
+        this(reservation, Runtime.getRuntime().availableProcessors(), CHUNK_SIZE);
+    }
+
+    /**
+     * @param threads how many chunks to answer at once
+     * @param chunkSize how many bytes of input to map per chunk, rounded up to the end of a line
+     */
+    BulkQueryRunner(HotelReservation reservation, int threads, int chunkSize) {
+        if (threads < 1) throw new IllegalArgumentException("Threads must be positive");
+        if (chunkSize < 1) throw new IllegalArgumentException("Chunk size must be positive");
+        this.reservation = reservation;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param input the file of queries, in the format of {@link HotelReservation#getCheapestHotel(String)}
+     * @param output the file of answers, replaced if it exists
+     * @return how many lines were answered, how many of them failed and how long it took
+     */
+    public Summary run(Path input, Path output) throws IOException {
+        long start = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "bulk-query-runner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            long lines = 0;
+            long errors = 0;
+            ArrayDeque<Future<Chunk>> pending = new ArrayDeque<>();
+            while (position < size || !pending.isEmpty()) {
+                if (position < size && pending.size() < 2 * threads) {
+                    long end = lineBoundary(in, Math.min(size, position + chunkSize), size);
+                    MappedByteBuffer buffer = in.map(FileChannel.MapMode.READ_ONLY, position, end - position);
+                    pending.add(workers.submit(() -> answer(buffer)));
+                    position = end;
+                    continue;
+                }
+                Chunk chunk = await(pending.poll());
+                lines += chunk.lines;
+                errors += chunk.errors;
+                ByteBuffer answers = ByteBuffer.wrap(chunk.answers);
+                while (answers.hasRemaining()) out.write(answers);
+            }
+            return new Summary(lines, errors, size, System.nanoTime() - start);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the position right after the first line break at or after {@code position - 1}, or the end of the file
+     */
+    private static long lineBoundary(FileChannel in, long position, long size) throws IOException {
+        if (position >= size) return size;
+        ByteBuffer scan = ByteBuffer.allocate(SCAN_SIZE);
+        for (long offset = position - 1; offset < size; offset += scan.position()) {
+            scan.clear();
+            if (in.read(scan, offset) <= 0) break;
+            for (int i = 0; i < scan.position(); i++)
+                if (scan.get(i) == '\n') return offset + i + 1;
+        }
+        return size;
+    }
+
+    private Chunk answer(ByteBuffer buffer) {
+        ByteSequence line = new ByteSequence(buffer);
+        StringBuilder answers = new StringBuilder(buffer.limit() / 4);
+        int lines = 0;
+        int errors = 0;
+        int limit = buffer.limit();
+        for (int start = 0; start < limit; ) {
+            int end = start;
+            while (end < limit && buffer.get(end) != '\n') end++;
+            int next = end + 1;
+            if (end > start && buffer.get(end - 1) == '\r') end--;
+            lines++;
+            try {
+                answers.append(reservation.getCheapestHotel(line.reset(start, end)));
+            } catch (RuntimeException e) {
+                errors++;
+                answers.append("ERROR ").append(e.getMessage());
+            }
+            answers.append('\n');
+            start = next;
+        }
+        return new Chunk(lines, errors, answers.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Chunk await(Future<Chunk> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while answering queries");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error) throw (Error) e.getCause();
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static final class Chunk {
+        final int lines;
+        final int errors;
+        final byte[] answers;
+
+        Chunk(int lines, int errors, byte[] answers) {
+            this.lines = lines;
+            this.errors = errors;
+            this.answers = answers;
+        }
+    }
+
+    /**
+     * The outcome of a run
+     */
+    public static final class Summary {
+        private final long lines;
+        private final long errors;
+        private final long bytes;
+        private final long nanos;
+
+        Summary(long lines, long errors, long bytes, long nanos) {
+            this.lines = lines;
+            this.errors = errors;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        public long getLines() {
+            return lines;
+        }
+
+        /**
+         * @return how many lines were answered with an error
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return the size of the input, in bytes
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public double getLinesPerSecond() {
+            return nanos == 0 ? 0 : lines * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d lines, %d errors, %d bytes in %.3f s (%.0f lines/s)",
+                    lines, errors, bytes, nanos / 1e9, getLinesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link CharSequence} view of a range of a {@link ByteBuffer}, reading each byte as a Latin-1 character,
+ * so ASCII text can be parsed straight from a buffer without decoding it into a {@link String}.
+ * The range can be moved with {@link #reset(int, int)}, so a single view can walk every line of a buffer.
+ */
+final class ByteSequence implements CharSequence {
+    private final ByteBuffer buffer;
+    private int start;
+    private int end;
+
+    ByteSequence(ByteBuffer buffer) {
+        this(buffer, 0, buffer.limit());
+    }
+
+    private ByteSequence(ByteBuffer buffer, int start, int end) {
+        this.buffer = buffer;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @param start the position in the buffer of the first byte of the view
+     * @param end the position in the buffer after the last byte of the view
+     * @return this view, over the new range
+     */
+    ByteSequence reset(int start, int end) {
+        if (start < 0 || end < start || end > buffer.limit()) throw new IndexOutOfBoundsException(start + ".." + end);
+        this.start = start;
+        this.end = end;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= end - start) throw new IndexOutOfBoundsException(index);
+        return (char) (buffer.get(start + index) & 0xff);
+    }
+
+    @Override
+    public CharSequence subSequence(int from, int to) {
+        if (from < 0 || to < from || to > end - start) throw new IndexOutOfBoundsException(from + ".." + to);
+        return new ByteSequence(buffer, start + from, start + to);
+    }
+
+    @Override
+    public String toString() {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,144 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, versioned snapshot of the hotels of a {@link HotelReservation}.
+ *
+ * Along with the hotels themselves, which may keep changing through their setters, it holds a frozen
+ * {@link Hotel#snapshot() copy} of each of them taken when the version was published, so readers price
+ * a consistent catalog without any locking. Every change produces a new catalog with the next version,
+ * copying only the hotel that changed.
+ */
+final class Catalog {
+    static final Catalog EMPTY = new Catalog(0, new Hotel[0], new Hotel[0]);
+
+    private final long version;
+    private final Hotel[] hotels;
+    private final Hotel[] snapshots;
+    private final List<Hotel> snapshotList;
+    private final boolean dayOfWeekPriced;
+    private final boolean weekendPriced;
+    /**
+     * The hull index of each client type, built on first use
+     */
+    private volatile HullIndex[] hullIndexes;
+
+    private Catalog(long version, Hotel[] hotels, Hotel[] snapshots) {
+        this.version = version;
+        this.hotels = hotels;
+        this.snapshots = snapshots;
+        this.snapshotList = Collections.unmodifiableList(Arrays.asList(snapshots));
+        boolean dayOfWeekPriced = true, weekendPriced = true;
+        for (Hotel hotel : snapshots) {
+            for (int t = 0; t < ClientType.count(); t++) {
+                PriceSchedule schedule = hotel.getSchedule(ClientType.of(t));
+                dayOfWeekPriced &= schedule instanceof DayOfWeekPriceSchedule;
+                weekendPriced &= schedule instanceof WeekendPriceSchedule;
+            }
+        }
+        this.dayOfWeekPriced = dayOfWeekPriced;
+        this.weekendPriced = weekendPriced;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return whether every schedule of every hotel is a {@link DayOfWeekPriceSchedule}
+     */
+    boolean isDayOfWeekPriced() {
+        return dayOfWeekPriced;
+    }
+
+    /**
+     * @return whether every schedule of every hotel is a {@link WeekendPriceSchedule}
+     */
+    boolean isWeekendPriced() {
+        return weekendPriced;
+    }
+
+    /**
+     * @return the hull index of the client type, or {@code null} if the catalog is too small to need one
+     * or is not priced by {@link WeekendPriceSchedule}s of a single currency without pricing rules
+     */
+    HullIndex getHullIndex(ClientType clientType) {
+        if (!weekendPriced || snapshots.length < HullIndex.MIN_HOTELS) return null;
+        HullIndex[] indexes = hullIndexes;
+        if (indexes == null) hullIndexes = indexes = HullIndex.build(snapshotList);
+        return indexes[clientType.ordinal()];
+    }
+
+    int size() {
+        return hotels.length;
+    }
+
+    /**
+     * @return the hotels as they were when this version was published, in catalog order
+     */
+    List<Hotel> getSnapshots() {
+        return snapshotList;
+    }
+
+    /**
+     * @return the hotels themselves, in catalog order
+     */
+    List<Hotel> getHotels() {
+        return List.of(hotels);
+    }
+
+    /**
+     * @param index the position in the catalog
+     * @return the hotel itself, whose snapshot is at the same position
+     */
+    Hotel getHotel(int index) {
+        return hotels[index];
+    }
+
+    boolean contains(Hotel hotel) {
+        return indexOf(hotel) >= 0;
+    }
+
+    /**
+     * @return the position of the first occurrence of the hotel itself, or {@code -1} if the catalog does not have it
+     */
+    int indexOf(Hotel hotel) {
+        for (int i = 0; i < hotels.length; i++) if (hotels[i] == hotel) return i;
+        return -1;
+    }
+
+    Catalog withHotel(Hotel hotel) {
+        Hotel[] hotels = Arrays.copyOf(this.hotels, this.hotels.length + 1);
+        Hotel[] snapshots = Arrays.copyOf(this.snapshots, this.snapshots.length + 1);
+        hotels[hotels.length - 1] = hotel;
+        snapshots[snapshots.length - 1] = hotel.snapshot();
+        return new Catalog(version + 1, hotels, snapshots);
+    }
+
+    /**
+     * @return the catalog without the first occurrence of the hotel, or this catalog if it does not have it
+     */
+    Catalog withoutHotel(Hotel hotel) {
+        int index = indexOf(hotel);
+        if (index < 0) return this;
+        return new Catalog(version + 1, remove(this.hotels, index), remove(this.snapshots, index));
+    }
+
+    private static Hotel[] remove(Hotel[] hotels, int index) {
+        Hotel[] result = new Hotel[hotels.length - 1];
+        System.arraycopy(hotels, 0, result, 0, index);
+        System.arraycopy(hotels, index + 1, result, index, result.length - index);
+        return result;
+    }
+
+    /**
+     * @return the catalog with a new snapshot of a hotel that changed
+     */
+    Catalog withChanged(Hotel hotel) {
+        Hotel[] snapshots = this.snapshots.clone();
+        Hotel snapshot = hotel.snapshot();
+        for (int i = 0; i < hotels.length; i++) if (hotels[i] == hotel) snapshots[i] = snapshot;
+        return new Catalog(version + 1, hotels, snapshots);
+    }
+}
@@ -0,0 +1,245 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Writes catalogs in the binary format read by {@link MappedCatalog}, from hotels or from a CSV file.
+ *
+ * The file starts with a 32 byte header: the magic number, the format version, how many client types
+ * each record has rates for, how many hotels and currencies there are, and where the names and records start.
+ * After it come the currency codes, 4 bytes each, then one fixed-width record per hotel, then the hotel names
+ * in UTF-8. A record holds the offset and length of the name, the rank, the index of the currency, a bit mask of
+ * the client types with rates of their own, and the weekday and weekend rates of each client type in minor units;
+ * client types without rates of their own repeat the regular rates, so records can be priced without branching.
+ * All numbers are big-endian.
+ */
+public final class CatalogFile {
+    static final int MAGIC = 0x48544C43;
+    static final short FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int CURRENCY_SIZE = 4;
+    /**
+     * Size of a record without its rates, which take 16 bytes per client type
+     */
+    static final int RECORD_HEADER_SIZE = 16;
+
+    private static final class Row {
+        final byte[] name;
+        final int rank;
+        final Currency currency;
+        final int ownTiers;
+        final long[] rates;
+
+        Row(String name, int rank, Currency currency, int ownTiers, long[] rates) {
+            this.name = name.getBytes(StandardCharsets.UTF_8);
+            this.rank = rank;
+            this.currency = currency;
+            this.ownTiers = ownTiers;
+            this.rates = rates;
+        }
+    }
+
+    private CatalogFile() {}
+
+    static int recordSize(int tiers) {
+        return RECORD_HEADER_SIZE + 16 * tiers;
+    }
+
+    /**
+     * @param hotels the hotels, all of whose schedules must be {@link WeekendPriceSchedule}s of one currency per hotel
+     * @param file the file to write, replaced if it exists
+     * @throws IllegalArgumentException if a hotel has other schedules, more than one currency or pricing rules
+     */
+    public static void write(List<Hotel> hotels, Path file) throws IOException {
+        List<Row> rows = new ArrayList<>(hotels.size());
+        for (Hotel hotel : hotels) {
+            if (!hotel.getPricingRules().isEmpty())
+                throw new IllegalArgumentException("Pricing rules cannot be written: " + hotel.getName());
+            long[] rates = new long[2 * ClientType.count()];
+            int ownTiers = 0;
+            Currency currency = null;
+            for (int t = 0; t < ClientType.count(); t++) {
+                ClientType clientType = ClientType.of(t);
+                if (!(hotel.getSchedule(clientType) instanceof WeekendPriceSchedule))
+                    throw new IllegalArgumentException("Only weekend schedules can be written: " + hotel.getName());
+                WeekendPriceSchedule schedule = (WeekendPriceSchedule) hotel.getSchedule(clientType);
+                if (currency == null) currency = schedule.getWeekdayPrice().getCurrency();
+                if (schedule.getWeekdayPrice().getCurrency() != currency
+                        || schedule.getWeekendPrice().getCurrency() != currency)
+                    throw new IllegalArgumentException("Hotel prices in more than one currency: " + hotel.getName());
+                rates[2 * t] = schedule.getWeekdayPrice().getMinorUnits();
+                rates[2 * t + 1] = schedule.getWeekendPrice().getMinorUnits();
+                if (hotel.hasOwnSchedule(clientType)) ownTiers |= 1 << t;
+            }
+            rows.add(new Row(hotel.getName(), hotel.getRank(), currency, ownTiers, rates));
+        }
+        writeRows(rows, file);
+    }
+
+    /**
+     * Converts a CSV catalog to the binary format. The first line is the header, naming the columns
+     * {@code name,rank,currency} followed by a {@code <label> weekday} and a {@code <label> weekend} column for
+     * each client type with rates, such as {@code Regular weekday,Regular weekend,Rewards weekday,Rewards weekend};
+     * the regular rates are required. Rates are decimal amounts in major units; empty rates fall back to the
+     * regular ones. Fields may be quoted with {@code "}, doubling quotes inside them.
+     * @return how many hotels were written
+     * @throws IllegalStateException if the CSV is malformed
+     */
+    public static int importCsv(Path csv, Path file) throws IOException {
+        List<Row> rows = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line = reader.readLine();
+            if (line == null) throw new IllegalStateException("Missing header at line 1");
+            int[] columns = header(split(line, 1));
+            int number = 1;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                if (!line.isBlank()) rows.add(row(split(line, number), columns, number));
+            }
+        }
+        writeRows(rows, file);
+        return rows.size();
+    }
+
+    /**
+     * @return the column of the weekday rate of each client type, its weekend rate being the next one, or -1
+     */
+    private static int[] header(List<String> fields) {
+        if (fields.size() < 5 || !fields.get(0).equalsIgnoreCase("name") || !fields.get(1).equalsIgnoreCase("rank")
+                || !fields.get(2).equalsIgnoreCase("currency"))
+            throw new IllegalStateException(
+                    "Expected header name,rank,currency,<ClientType> weekday,<ClientType> weekend,... at line 1");
+        int[] columns = new int[ClientType.count()];
+        Arrays.fill(columns, -1);
+        for (int c = 3; c < fields.size(); c += 2) {
+            String weekday = fields.get(c).trim();
+            int space = weekday.indexOf(' ');
+            ClientType clientType = space < 0 ? null : ClientType.ofLabel(weekday, 0, space);
+            if (clientType == null || !weekday.substring(space + 1).equalsIgnoreCase("weekday")
+                    || c + 1 == fields.size()
+                    || !fields.get(c + 1).trim().equalsIgnoreCase(clientType.getLabel() + " weekend")) {
+                throw new IllegalStateException(
+                        "Expected <ClientType> weekday,<ClientType> weekend at column " + (c + 1) + " of line 1");
+            }
+            columns[clientType.ordinal()] = c;
+        }
+        if (columns[ClientType.REGULAR.ordinal()] < 0)
+            throw new IllegalStateException("Missing regular rates at line 1");
+        return columns;
+    }
+
+    private static Row row(List<String> fields, int[] columns, int line) {
+        try {
+            String name = fields.get(0);
+            int rank = Integer.parseInt(fields.get(1).trim());
+            Currency currency = Currency.getInstance(fields.get(2).trim());
+            long[] rates = new long[2 * ClientType.count()];
+            int ownTiers = 0;
+            int regular = columns[ClientType.REGULAR.ordinal()];
+            for (int t = 0; t < ClientType.count(); t++) {
+                int column = columns[t];
+                boolean own = column >= 0 && column + 1 < fields.size()
+                        && !fields.get(column).isBlank() && !fields.get(column + 1).isBlank();
+                if (!own) column = regular;
+                else ownTiers |= 1 << t;
+                rates[2 * t] = minorUnits(fields.get(column), currency);
+                rates[2 * t + 1] = minorUnits(fields.get(column + 1), currency);
+            }
+            return new Row(name, rank, currency, ownTiers, rates);
+        } catch (IndexOutOfBoundsException | IllegalArgumentException | ArithmeticException e) {
+            throw new IllegalStateException("Invalid hotel at line " + line + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static long minorUnits(String amount, Currency currency) {
+        return new BigDecimal(amount.trim()).movePointRight(currency.getDefaultFractionDigits()).longValueExact();
+    }
+
+    /**
+     * Splits a CSV line in its fields, unquoting the quoted ones
+     */
+    private static List<String> split(String line, int number) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') field.append(c);
+                else if (i + 1 < line.length() && line.charAt(i + 1) == '"') field.append(line.charAt(++i));
+                else quoted = false;
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) throw new IllegalStateException("Unterminated quote at line " + number);
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static void writeRows(List<Row> rows, Path file) throws IOException {
+        List<Currency> currencies = new ArrayList<>();
+        for (Row row : rows) if (!currencies.contains(row.currency)) currencies.add(row.currency);
+        if (currencies.size() > Short.MAX_VALUE) throw new IllegalArgumentException("Too many currencies");
+        int tiers = ClientType.count();
+        long recordsOffset = HEADER_SIZE + (long) CURRENCY_SIZE * currencies.size();
+        long namesOffset = recordsOffset + (long) recordSize(tiers) * rows.size();
+        long namesSize = 0;
+        for (Row row : rows) namesSize += row.name.length;
+        if (namesOffset + namesSize > Integer.MAX_VALUE) throw new IllegalArgumentException("Catalog is too large");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+            buffer.putInt(MAGIC).putShort(FORMAT_VERSION).putShort((short) tiers)
+                    .putInt(rows.size()).putInt(currencies.size())
+                    .putLong(namesOffset).putLong(recordsOffset);
+            for (Currency currency : currencies) {
+                buffer.put(currency.getCurrencyCode().getBytes(StandardCharsets.US_ASCII)).put((byte) 0);
+            }
+            int nameOffset = 0;
+            for (Row row : rows) {
+                buffer = ensure(channel, buffer, recordSize(tiers));
+                buffer.putInt(nameOffset).putInt(row.name.length).putInt(row.rank)
+                        .putShort((short) currencies.indexOf(row.currency)).putShort((short) row.ownTiers);
+                for (long rate : row.rates) buffer.putLong(rate);
+                nameOffset += row.name.length;
+            }
+            for (Row row : rows) {
+                buffer = ensure(channel, buffer, row.name.length);
+                buffer.put(row.name);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * @return the buffer, flushed first if it has less room than needed, or a larger one if the room is not enough
+     */
+    private static ByteBuffer ensure(FileChannel channel, ByteBuffer buffer, int room) throws IOException {
+        if (buffer.remaining() >= room) return buffer;
+        flush(channel, buffer);
+        return buffer.capacity() >= room ? buffer : ByteBuffer.allocate(room);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * The tiers of clients, each of which a hotel may price with its own {@link PriceSchedule}.
+ * Tiers a hotel has no schedule for are priced with its {@link #REGULAR} schedule.
+ */
+public enum ClientType {
+    REGULAR("Regular"),
+    REWARDS("Rewards"),
+    CORPORATE("Corporate"),
+    GOLD("Gold"),
+    STAFF("Staff");
+
+    private static final ClientType[] VALUES = values();
+
+    /**
+     * The name of the tier in queries
+     */
+    private final String label;
+
+    ClientType(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return how many client types there are, for arrays indexed by {@link #ordinal()}
+     */
+    static int count() {
+        return VALUES.length;
+    }
+
+    /**
+     * @return the client type with the given {@link #ordinal()}, without copying {@link #values()}
+     */
+    static ClientType of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Finds the client type whose label is a region of a query
+     * @return the client type, or {@code null} if no label matches
+     */
+    static ClientType ofLabel(CharSequence input, int start, int end) {
+        for (ClientType type : VALUES) {
+            String label = type.label;
+            if (label.length() != end - start) continue;
+            int i = 0;
+            while (i < label.length() && input.charAt(start + i) == label.charAt(i)) i++;
+            if (i == label.length()) return type;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,130 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * How many nights of a stay fall on each day of the week.
+ *
+ * Schedules whose price only depends on the day of the week can price a whole stay
+ * from these seven counts, regardless of how many nights it has.
+ */
+public final class DayOfWeekHistogram {
+    /**
+     * Night count per day of the week, indexed by {@link DayOfWeek#ordinal()}
+     */
+    private final int[] counts;
+
+    private DayOfWeekHistogram(int[] counts) {
+        this.counts = counts;
+    }
+
+    public static DayOfWeekHistogram of(Collection<LocalDate> dates) {
+        int[] counts = new int[7];
+        for (LocalDate date : dates) counts[date.getDayOfWeek().ordinal()]++;
+        return new DayOfWeekHistogram(counts);
+    }
+
+    public static DayOfWeekHistogram of(LocalDate[] dates) {
+        return of(Arrays.asList(dates));
+    }
+
+    /**
+     * @param epochDays the dates, as epoch days
+     * @param size how many of the epoch days to count, from the start of the array
+     */
+    public static DayOfWeekHistogram ofEpochDays(int[] epochDays, int size) {
+        int[] counts = new int[7];
+        for (int i = 0; i < size; i++) counts[dayOfWeek(epochDays[i])]++;
+        return new DayOfWeekHistogram(counts);
+    }
+
+    /**
+     * @param counts the night count per day of the week, indexed by {@link DayOfWeek#ordinal()}; not copied
+     */
+    static DayOfWeekHistogram ofCounts(int[] counts) {
+        assert counts.length == 7 : "Bug: counts must have one entry per day of the week";
+        return new DayOfWeekHistogram(counts);
+    }
+
+    /**
+     * Counts a contiguous range of dates in constant time, as whole weeks plus the leftover days
+     * @param startingDate the first date of the range
+     * @param endingDate the last date of the range, inclusive; the range is empty if it is before {@code startingDate}
+     */
+    public static DayOfWeekHistogram ofRange(LocalDate startingDate, LocalDate endingDate) {
+        return ofEpochDayRange(startingDate.toEpochDay(), endingDate.toEpochDay());
+    }
+
+    /**
+     * @see #ofRange(LocalDate, LocalDate)
+     */
+    static DayOfWeekHistogram ofEpochDayRange(long startingDay, long endingDay) {
+        int[] counts = new int[7];
+        addRange(counts, startingDay, endingDay);
+        return new DayOfWeekHistogram(counts);
+    }
+
+    /**
+     * Adds the nights of a range to counts indexed by {@link DayOfWeek#ordinal()}, as in {@link #ofRange(LocalDate, LocalDate)}
+     */
+    static void addRange(int[] counts, long startingDay, long endingDay) {
+        long nights = Math.max(0, endingDay - startingDay + 1);
+        int weeks = Math.toIntExact(nights / 7);
+        if (weeks > 0) for (int d = 0; d < 7; d++) counts[d] = Math.addExact(counts[d], weeks);
+        int first = dayOfWeek(startingDay);
+        for (int i = 0; i < nights % 7; i++) counts[(first + i) % 7]++;
+    }
+
+    /**
+     * @param epochDay the date, as an epoch day
+     * @return the {@link DayOfWeek#ordinal()} of the date (1970-01-01 was a thursday)
+     */
+    static int dayOfWeek(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L);
+    }
+
+    public int getCount(DayOfWeek day) {
+        return counts[day.ordinal()];
+    }
+
+    /**
+     * @return how many nights fall from monday to friday
+     */
+    public int getWeekdays() {
+        return counts[0] + counts[1] + counts[2] + counts[3] + counts[4];
+    }
+
+    /**
+     * @return how many nights fall on saturday or sunday
+     */
+    public int getWeekends() {
+        return counts[5] + counts[6];
+    }
+
+    public int getTotal() {
+        return getWeekdays() + getWeekends();
+    }
+
+    /**
+     * @return the night count per day of the week, indexed by {@link DayOfWeek#ordinal()}
+     */
+    public int[] toArray() {
+        return counts.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof DayOfWeekHistogram && Arrays.equals(counts, ((DayOfWeekHistogram) o).counts);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counts);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(counts);
+    }
+}
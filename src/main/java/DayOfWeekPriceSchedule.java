@@ -0,0 +1,55 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * A {@link PriceSchedule} whose price only depends on the day of the week, so a stay
+ * can be priced from its {@link DayOfWeekHistogram} instead of date by date.
+ */
+public interface DayOfWeekPriceSchedule extends PriceSchedule {
+    Money getPrice(DayOfWeek day);
+
+    @Override
+    default Money getPrice(LocalDate date) {
+        return getPrice(date.getDayOfWeek());
+    }
+
+    /**
+     * @return the price of the cheapest day of the week
+     */
+    @Override
+    default Money getMinimumPrice() {
+        Money minimum = getPrice(DayOfWeek.MONDAY);
+        for (DayOfWeek day : DayOfWeek.values())
+            if (minimum.greaterThan(getPrice(day))) minimum = getPrice(day);
+        return minimum;
+    }
+
+    /**
+     * Prices the range in constant time, from its {@link DayOfWeekHistogram#ofRange(LocalDate, LocalDate) histogram}
+     */
+    @Override
+    default Money getPrice(LocalDate startingDate, LocalDate endingDate) {
+        return getPrice(DayOfWeekHistogram.ofRange(startingDate, endingDate));
+    }
+
+    /**
+     * Prices the stay from the histogram it already holds
+     */
+    @Override
+    default Money getPrice(StayDates stay) {
+        return getPrice(stay.histogram());
+    }
+
+    /**
+     * Prices a stay as the sum, over each day of the week, of its price times how many nights fall on it
+     * @throws ArithmeticException if the total overflows
+     */
+    default Money getPrice(DayOfWeekHistogram histogram) {
+        MoneyAccumulator total = new MoneyAccumulator();
+        for (int ordinal = 0; ordinal < 7; ordinal++) {
+            DayOfWeek day = DayOfWeek.of(ordinal + 1);
+            total.add(getPrice(day), histogram.getCount(day));
+        }
+        return total.toMoney();
+    }
+}
@@ -0,0 +1,152 @@
+import java.util.Arrays;
+import java.util.Currency;
+
+/**
+ * Immutable table of exchange rates into a reference currency, used to compare prices of different currencies.
+ *
+ * Rates are fixed-point longs scaled by {@link #SCALE}: a rate of {@code 5_250_000} means one unit of the
+ * currency is worth 5.25 units of the reference currency. Each rate is kept as a reduced fraction of minor
+ * units, and conversions are done with long arithmetic only, rounding half to even. Tables are never changed
+ * in place; {@link #withRate(Currency, long)} returns a new one, so a table can be swapped atomically.
+ */
+public final class FxTable {
+    public static final long SCALE = 1_000_000L;
+    private static final long[] POWERS_OF_TEN = { 1, 10, 100, 1000 };
+
+    private final Currency reference;
+    private final Currency[] currencies;
+    private final long[] rates;
+    /**
+     * Minor units of the reference currency per {@link #denominators denominator} minor units of each currency
+     */
+    private final long[] numerators;
+    private final long[] denominators;
+
+    /**
+     * Creates a table with no rates other than the reference currency's own
+     * @param reference the currency prices are converted into, not {@code null}
+     */
+    public FxTable(Currency reference) {
+        if (reference == null) throw new NullPointerException("Currency must not be null");
+        minorUnitFactor(reference);
+        this.reference = reference;
+        this.currencies = new Currency[0];
+        this.rates = new long[0];
+        this.numerators = new long[0];
+        this.denominators = new long[0];
+    }
+
+    private FxTable(Currency reference, Currency[] currencies, long[] rates, long[] numerators, long[] denominators) {
+        this.reference = reference;
+        this.currencies = currencies;
+        this.rates = rates;
+        this.numerators = numerators;
+        this.denominators = denominators;
+    }
+
+    /**
+     * @param currency the currency, not {@code null}
+     * @param rate how many units of the reference currency one unit of the currency is worth, scaled by {@link #SCALE}
+     * @return a new table with the rate added, or replaced if the currency already had one
+     * @throws IllegalArgumentException if the rate is not positive or too large to convert without overflow
+     */
+    public FxTable withRate(Currency currency, long rate) {
+        if (currency == null) throw new NullPointerException("Currency must not be null");
+        if (currency == reference) throw new IllegalArgumentException("The reference currency has a fixed rate");
+        if (rate <= 0) throw new IllegalArgumentException("Rate must be positive");
+        long numerator = Math.multiplyExact(rate, minorUnitFactor(reference));
+        long denominator = SCALE * minorUnitFactor(currency);
+        long gcd = gcd(numerator, denominator);
+        numerator /= gcd;
+        denominator /= gcd;
+        if (numerator > Long.MAX_VALUE / denominator) throw new IllegalArgumentException("Rate is too large");
+
+        int i = indexOf(currency);
+        int size = i < 0 ? currencies.length + 1 : currencies.length;
+        if (i < 0) i = currencies.length;
+        FxTable table = new FxTable(reference, Arrays.copyOf(currencies, size), Arrays.copyOf(rates, size),
+                Arrays.copyOf(numerators, size), Arrays.copyOf(denominators, size));
+        table.currencies[i] = currency;
+        table.rates[i] = rate;
+        table.numerators[i] = numerator;
+        table.denominators[i] = denominator;
+        return table;
+    }
+
+    private static long minorUnitFactor(Currency currency) {
+        int digits = currency.getDefaultFractionDigits();
+        if (digits < 0 || digits >= POWERS_OF_TEN.length)
+            throw new IllegalArgumentException("Unsupported currency " + currency);
+        return POWERS_OF_TEN[digits];
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    private int indexOf(Currency currency) {
+        for (int i = 0; i < currencies.length; i++)
+            if (currencies[i] == currency) return i;
+        return -1;
+    }
+
+    public Currency getReference() {
+        return reference;
+    }
+
+    /**
+     * @return the rate of the currency scaled by {@link #SCALE}
+     * @throws IllegalArgumentException if the table has no rate for the currency
+     */
+    public long getRate(Currency currency) {
+        if (currency == reference) return SCALE;
+        int i = indexOf(currency);
+        if (i < 0) throw new IllegalArgumentException("No exchange rate for " + currency);
+        return rates[i];
+    }
+
+    /**
+     * @param price the price, not {@code null}
+     * @return the price in the reference currency, the same instance if it already is
+     * @throws IllegalArgumentException if the table has no rate for the currency of the price
+     */
+    public Money toReference(Money price) {
+        if (price.getCurrency() == reference) return price;
+        return Money.ofMinorUnits(toReference(price.getMinorUnits(), price.getCurrency()), reference);
+    }
+
+    /**
+     * Converts {@code a} minor units as {@code a * n / d}, split as {@code q * n + r * n / d} with
+     * {@code a = q * d + r}, so that {@code r * n} cannot overflow and the remainder rounds exactly
+     * @param minorUnits the amount, in minor units of the currency
+     * @return the amount in minor units of the reference currency, rounded half to even
+     * @throws ArithmeticException if the result does not fit in a long
+     */
+    long toReference(long minorUnits, Currency currency) {
+        if (currency == reference) return minorUnits;
+        int i = indexOf(currency);
+        if (i < 0) throw new IllegalArgumentException("No exchange rate for " + currency);
+        long numerator = numerators[i];
+        long denominator = denominators[i];
+        long quotient = Math.floorDiv(minorUnits, denominator);
+        long product = Math.floorMod(minorUnits, denominator) * numerator;
+        long remainder = product % denominator;
+        long result = Math.addExact(Math.multiplyExact(quotient, numerator), product / denominator);
+        long half = denominator - remainder;
+        if (remainder > half || remainder == half && (result & 1) != 0) result = Math.addExact(result, 1);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("FxTable[").append(reference);
+        for (int i = 0; i < currencies.length; i++)
+            builder.append(", ").append(currencies[i]).append('=').append(rates[i]).append('/').append(SCALE);
+        return builder.append(']').toString();
+    }
+}
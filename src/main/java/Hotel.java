@@ -1,18 +1,66 @@
-import java.time.LocalDate;
 import java.util.Currency;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class Hotel {
     private String name;
     private int rank;
-    private PriceSchedule regularSchedule;
-    private PriceSchedule rewardsSchedule;
+    /**
+     * The schedule of each client type, indexed by {@link ClientType#ordinal()}. Client types without their own
+     * schedule hold the regular one, so the array is always dense.
+     */
+    private final PriceSchedule[] schedules = new PriceSchedule[ClientType.count()];
+    /**
+     * Bit {@code 1 << ordinal} is set for the client types that have their own schedule
+     */
+    private int ownSchedules;
+    private PricingRules pricingRules = PricingRules.NONE;
+    private final List<Consumer<Hotel>> listeners = new CopyOnWriteArrayList<>();
+    /**
+     * Forwards the changes of the schedules as changes of this hotel
+     */
+    private final Runnable scheduleListener = this::changed;
 
     public Hotel(String name, int rank, PriceSchedule regularSchedule, PriceSchedule rewardsSchedule) {
+        this(name, rank, Map.of(ClientType.REGULAR, regularSchedule, ClientType.REWARDS, rewardsSchedule));
+    }
+
+    /**
+     * @param schedules the schedule of each client type; must have the {@link ClientType#REGULAR} one,
+     *                  which is also used for the client types that have none
+     */
+    public Hotel(String name, int rank, Map<ClientType, PriceSchedule> schedules) {
         this.name = name;
         this.rank = rank;
-        this.regularSchedule = regularSchedule;
-        this.rewardsSchedule = rewardsSchedule;
+        assign(ClientType.REGULAR, schedules.get(ClientType.REGULAR));
+        schedules.forEach((clientType, schedule) -> {
+            if (clientType != ClientType.REGULAR) assign(clientType, schedule);
+        });
+        listen(new PriceSchedule[0]);
+    }
+
+    /**
+     * Copy constructor for snapshots, which do not listen to the changes of their schedules
+     */
+    private Hotel(Hotel other) {
+        this.name = other.name;
+        this.rank = other.rank;
+        this.ownSchedules = other.ownSchedules;
+        this.pricingRules = other.pricingRules;
+        for (int i = 0; i < schedules.length; i++) {
+            int same = indexOf(other.schedules, other.schedules[i]);
+            schedules[i] = same < i ? schedules[same] : other.schedules[i].snapshot();
+        }
+    }
+
+    /**
+     * @return a copy of this hotel with {@link PriceSchedule#snapshot() snapshots} of its schedules,
+     * which does not follow later changes and is not meant to be changed itself
+     */
+    Hotel snapshot() {
+        return new Hotel(this);
     }
 
     public static Hotel withWeekendSchedule(String name, int rank, long regularWeekday, long regularWeekend, long rewardsWeekday, long rewardsWeekend) {
@@ -28,18 +76,48 @@ public class Hotel {
     }
 
     /**
-     * TODO Generalize client type by changing rewards from boolean to enum
+     * @return the price of the stay after the {@link #getPricingRules() pricing rules}, or {@code null} if they
+     * do not offer it
+     */
+    public Money getPrice(ClientType clientType, StayDates stay) {
+        Money price = schedules[clientType.ordinal()].getPrice(stay);
+        return pricingRules.isEmpty() ? price : pricingRules.apply(price, clientType, stay.size());
+    }
+
+    /**
+     * @return a price no night of a stay of the client type is cheaper than, or {@code null} if it is not known:
+     * the schedule does not know it or the hotel has pricing rules
      */
-    public Money getPrice(boolean rewards, List<LocalDate> dates) {
-        PriceSchedule schedule = rewards ? rewardsSchedule : regularSchedule;
-        Money total = new Money(0, schedule.getPrice(dates.get(0)).getCurrency());
-        for (LocalDate date : dates) total = total.add(schedule.getPrice(date));
-        return total;
+    public Money getMinimumNightlyPrice(ClientType clientType) {
+        return pricingRules.isEmpty() ? schedules[clientType.ordinal()].getMinimumPrice() : null;
+    }
+
+    public int comparePrice(Hotel other, ClientType clientType, StayDates stay) {
+        return compare(getPrice(clientType, stay), rank, other.getPrice(clientType, stay), other.getRank());
+    }
+
+    /**
+     * Orders hotels by price and, on equal prices, by descending rank; hotels that do not offer the stay,
+     * with a {@code null} price, come after the ones that do
+     */
+    static int compare(Money price, int rank, Money otherPrice, int otherRank) {
+        int priceComparison = price == null || otherPrice == null
+                ? Boolean.compare(price == null, otherPrice == null)
+                : price.compareTo(otherPrice);
+        return priceComparison == 0 ? -1 * Integer.compare(rank, otherRank) : priceComparison;
+    }
+
+    public PricingRules getPricingRules() {
+        return pricingRules;
     }
 
-    public int comparePrice(Hotel other, boolean rewards, List<LocalDate> dates) {
-        int priceComparison = getPrice(rewards, dates).compareTo(other.getPrice(rewards, dates));
-        return priceComparison == 0 ? -1 * Integer.compare(rank, other.getRank()) : priceComparison;
+    /**
+     * @param pricingRules the discounts and constraints applied on top of the prices of the schedules, not {@code null}
+     */
+    public void setPricingRules(PricingRules pricingRules) {
+        if (pricingRules == null) throw new NullPointerException("Pricing rules must not be null");
+        this.pricingRules = pricingRules;
+        changed();
     }
 
     public String getName() {
@@ -48,6 +126,7 @@ public class Hotel {
 
     public void setName(String name) {
         this.name = name;
+        changed();
     }
 
     public int getRank() {
@@ -56,21 +135,96 @@ public class Hotel {
 
     public void setRank(int rank) {
         this.rank = rank;
+        changed();
+    }
+
+    /**
+     * @return the schedule of the client type, which is the regular one if it has none of its own
+     */
+    public PriceSchedule getSchedule(ClientType clientType) {
+        return schedules[clientType.ordinal()];
+    }
+
+    /**
+     * @return whether the client type has its own schedule instead of using the regular one
+     */
+    public boolean hasOwnSchedule(ClientType clientType) {
+        return (ownSchedules & 1 << clientType.ordinal()) != 0;
+    }
+
+    /**
+     * @param schedule the schedule of the client type; {@code null} makes it use the regular schedule,
+     *                 which itself must not be {@code null}
+     */
+    public void setSchedule(ClientType clientType, PriceSchedule schedule) {
+        PriceSchedule[] previous = schedules.clone();
+        assign(clientType, schedule);
+        listen(previous);
+        changed();
+    }
+
+    private void assign(ClientType clientType, PriceSchedule schedule) {
+        int bit = 1 << clientType.ordinal();
+        if (clientType == ClientType.REGULAR) {
+            if (schedule == null) throw new NullPointerException("Regular schedule must not be null");
+            ownSchedules |= bit;
+            for (int i = 0; i < schedules.length; i++)
+                if ((ownSchedules & 1 << i) == 0 || i == clientType.ordinal()) schedules[i] = schedule;
+        } else if (schedule == null) {
+            ownSchedules &= ~bit;
+            schedules[clientType.ordinal()] = schedules[ClientType.REGULAR.ordinal()];
+        } else {
+            ownSchedules |= bit;
+            schedules[clientType.ordinal()] = schedule;
+        }
+    }
+
+    /**
+     * Moves the schedule listener from the schedules no longer used to the ones newly used, once per schedule
+     * @param previous the schedules before they changed
+     */
+    private void listen(PriceSchedule[] previous) {
+        for (int i = 0; i < previous.length; i++)
+            if (indexOf(previous, previous[i]) == i && indexOf(schedules, previous[i]) < 0)
+                previous[i].removeChangeListener(scheduleListener);
+        for (int i = 0; i < schedules.length; i++)
+            if (indexOf(schedules, schedules[i]) == i && indexOf(previous, schedules[i]) < 0)
+                schedules[i].addChangeListener(scheduleListener);
+    }
+
+    private static int indexOf(PriceSchedule[] schedules, PriceSchedule schedule) {
+        for (int i = 0; i < schedules.length; i++) if (schedules[i] == schedule) return i;
+        return -1;
     }
 
     public PriceSchedule getRegularSchedule() {
-        return regularSchedule;
+        return getSchedule(ClientType.REGULAR);
     }
 
     public void setRegularSchedule(PriceSchedule regularSchedule) {
-        this.regularSchedule = regularSchedule;
+        setSchedule(ClientType.REGULAR, regularSchedule);
     }
 
     public PriceSchedule getRewardsSchedule() {
-        return rewardsSchedule;
+        return getSchedule(ClientType.REWARDS);
     }
 
     public void setRewardsSchedule(PriceSchedule rewardsSchedule) {
-        this.rewardsSchedule = rewardsSchedule;
+        setSchedule(ClientType.REWARDS, rewardsSchedule);
+    }
+
+    /**
+     * Registers a listener called with this hotel after its name, rank, schedules or any of their prices change
+     */
+    public void addChangeListener(Consumer<Hotel> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(Consumer<Hotel> listener) {
+        listeners.remove(listener);
+    }
+
+    private void changed() {
+        for (Consumer<Hotel> listener : listeners) listener.accept(this);
     }
 }
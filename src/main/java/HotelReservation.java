@@ -1,42 +1,675 @@
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class HotelReservation {
-    private final List<Hotel> hotels = new ArrayList<>(List.of(
-            Hotel.withWeekendSchedule("Lakewood", 3,110, 90,80, 80),
-            Hotel.withWeekendSchedule("Bridgewood", 4,160, 60, 110, 50),
-            Hotel.withWeekendSchedule("Ridgewood", 5, 220, 150, 100, 40)
-    ));
+    /**
+     * Below this many queries a batch task stops splitting and runs its queries sequentially
+     */
+    private static final int BATCH_THRESHOLD = 256;
+    private static final ThreadLocal<QueryScratch> SCRATCH = ThreadLocal.withInitial(QueryScratch::new);
+
+    private final Object writeLock = new Object();
+    private final Consumer<Hotel> hotelListener = this::hotelChanged;
+    /**
+     * The current version of the catalog. Readers take it without locking; writers replace it under {@link #writeLock}
+     */
+    private volatile Catalog catalog = Catalog.EMPTY;
+
+    /**
+     * First and last date of the price index, or {@code null} when it is disabled
+     */
+    private volatile LocalDate[] indexHorizon;
+    private volatile PriceIndex priceIndex;
+    private final AtomicBoolean indexRebuildPending = new AtomicBoolean();
+    private ExecutorService indexBuilder;
+    private volatile QueryCache queryCache;
+    /**
+     * Rates used to compare prices of different currencies, or {@code null} to only compare prices of the same currency
+     */
+    private volatile FxTable fxTable;
+    private volatile ReservationMetrics metrics;
+    private volatile RoomInventory roomInventory;
+    /**
+     * The standing queries; only used under {@link #writeLock}
+     */
+    private final PriceWatches watches = new PriceWatches();
+
+    public HotelReservation() {
+        this(List.of(
+                Hotel.withWeekendSchedule("Lakewood", 3,110, 90,80, 80),
+                Hotel.withWeekendSchedule("Bridgewood", 4,160, 60, 110, 50),
+                Hotel.withWeekendSchedule("Ridgewood", 5, 220, 150, 100, 40)
+        ));
+    }
+
+    public HotelReservation(Collection<Hotel> hotels) {
+        for (Hotel hotel : hotels) addHotel(hotel);
+    }
 
     public List<Hotel> getHotels() {
-        return List.copyOf(hotels);
+        return catalog.getHotels();
+    }
+
+    /**
+     * @return the version of the catalog, incremented on every change of the hotels, their schedules or prices
+     */
+    public long getCatalogVersion() {
+        return catalog.getVersion();
     }
 
     public void addHotel(Hotel hotel) {
-        hotels.add(hotel);
+        List<PriceWatch> changed;
+        synchronized (writeLock) {
+            if (!catalog.contains(hotel)) hotel.addChangeListener(hotelListener);
+            changed = publish(catalog.withHotel(hotel), hotel);
+        }
+        notifyWatches(changed);
     }
 
     public void removeHotel(Hotel hotel) {
-        hotels.remove(hotel);
+        List<PriceWatch> changed;
+        synchronized (writeLock) {
+            Catalog updated = catalog.withoutHotel(hotel);
+            if (updated == catalog) return;
+            if (!updated.contains(hotel)) hotel.removeChangeListener(hotelListener);
+            changed = publish(updated, hotel);
+        }
+        notifyWatches(changed);
+    }
+
+    private void hotelChanged(Hotel hotel) {
+        List<PriceWatch> changed;
+        synchronized (writeLock) {
+            if (!catalog.contains(hotel)) return;
+            changed = publish(catalog.withChanged(hotel), hotel);
+        }
+        notifyWatches(changed);
+    }
+
+    /**
+     * Makes a new version of the catalog visible to readers and re-evaluates the standing queries;
+     * must hold {@link #writeLock}
+     * @param hotel the hotel added, removed or changed
+     * @return the watches to notify once the lock is released
+     */
+    private List<PriceWatch> publish(Catalog updated, Hotel hotel) {
+        catalog = updated;
+        catalogChanged();
+        return watches.hotelChanged(updated, fxTable, hotel);
+    }
+
+    /**
+     * Calls the listeners of the watches whose cheapest hotel changed; must not hold {@link #writeLock}
+     */
+    private static void notifyWatches(List<PriceWatch> changed) {
+        for (PriceWatch watch : changed) watch.winnerChanged();
+    }
+
+    /**
+     * Registers a standing query, whose cheapest hotel is kept up to date as hotels are added, removed or
+     * changed, or the exchange rates are replaced. Only the queries a change can affect are evaluated again,
+     * pricing only the hotel that changed unless the cheapest hotel got more expensive or was removed.
+     * @param input the query, in the same format as {@link #getCheapestHotel(String)}
+     * @param listener called with the watch each time a different hotel becomes the cheapest one, on the thread
+     *                 that changed the catalog, after the change is visible to readers
+     * @return the watch, already evaluated against the current catalog
+     */
+    public PriceWatch watch(String input, Consumer<PriceWatch> listener) throws IllegalStateException {
+        if (listener == null) throw new NullPointerException("Listener must not be null");
+        QueryParser parser = new QueryParser();
+        parser.parse(input);
+        PriceWatch watch = new PriceWatch(this, input, parser.getClientType(), parser.toStayDates(), listener);
+        synchronized (writeLock) {
+            watches.add(watch, catalog, fxTable);
+        }
+        return watch;
+    }
+
+    /**
+     * Stops following the catalog for the watch; does nothing if it was already cancelled
+     */
+    public void unwatch(PriceWatch watch) {
+        synchronized (writeLock) {
+            watches.remove(watch);
+        }
     }
 
     public String getCheapestHotel (String input) throws IllegalStateException {
-        String rewardsString = input.split(":", 2)[0];
-        boolean rewards = Objects.equals(input.split(":")[0], "Rewards");
-        if (!rewards && !Objects.equals(input.split(":")[0], "Regular")) throw new IllegalStateException();
-
-        Pattern datePattern = Pattern.compile("([0-9]{2})([A-z]{3,4})([0-9]{4})\\([a-z]{3,4}\\)");
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MMM-yyyy", Locale.ENGLISH);
-        List<LocalDate> dates = new ArrayList<>();
-        Matcher matcher = datePattern.matcher(input);
-        while (matcher.find())
-            dates.add(LocalDate.parse(matcher.group(1) + "-" + matcher.group(2) + "-" + matcher.group(3), formatter));
-
-        return hotels.stream().min(
-                (o1, o2) -> o1.comparePrice(o2, rewards, dates)
-        ).orElseThrow().getName();
+        Catalog catalog = this.catalog;
+        return getCheapestHotel(catalog, priceIndexOf(catalog), fxTable, input, SCRATCH.get());
+    }
+
+    /**
+     * Same as {@link #getCheapestHotel(String)}, for input that is not held in a {@link String}, such as a view of a file
+     */
+    String getCheapestHotel(CharSequence input) throws IllegalStateException {
+        Catalog catalog = this.catalog;
+        return getCheapestHotel(catalog, priceIndexOf(catalog), fxTable, input, SCRATCH.get());
+    }
+
+    /**
+     * Sets the exchange rates used to compare hotels priced in different currencies, replacing the previous ones
+     * at once for every later query. Prices are compared in the reference currency of the table.
+     * @param table the rates, or {@code null} to require every hotel to price in the same currency
+     */
+    public void setFxTable(FxTable table) {
+        List<PriceWatch> changed;
+        synchronized (writeLock) {
+            fxTable = table;
+            changed = watches.evaluateAll(catalog, table);
+        }
+        notifyWatches(changed);
+    }
+
+    public FxTable getFxTable() {
+        return fxTable;
+    }
+
+    /**
+     * @param table the exchange rates, or {@code null}
+     * @return the price in the reference currency of the table, or the price itself without a table
+     */
+    private static Money toReference(Money price, FxTable table) {
+        return table == null || price == null ? price : table.toReference(price);
+    }
+
+    /**
+     * @return the price of the hotel from the index after its pricing rules, or {@code null} if they do not
+     * offer the stay
+     */
+    private static Money indexedPrice(Hotel hotel, PriceIndex index, int position, ClientType clientType,
+                                      QueryParser stay) {
+        return applyRules(hotel, schedulePrice(hotel, index, position, clientType, stay, null), clientType, stay.size());
+    }
+
+    /**
+     * @param index the price index to take the price from, or {@code null} to price the stay with the schedule
+     * @return the price of the schedule of the client type, before the pricing rules of the hotel
+     */
+    private static Money schedulePrice(Hotel hotel, PriceIndex index, int position, ClientType clientType,
+                                       QueryParser parser, StayDates stay) {
+        if (index == null) return hotel.getSchedule(clientType).getPrice(stay);
+        return Money.ofMinorUnits(index.getPrice(position, clientType, parser), index.getCurrency(position, clientType));
+    }
+
+    private static Money applyRules(Hotel hotel, Money price, ClientType clientType, int nights) {
+        PricingRules rules = hotel.getPricingRules();
+        return rules.isEmpty() ? price : rules.apply(price, clientType, nights);
+    }
+
+    /**
+     * Quotes the k cheapest hotels for a query, pricing each hotel once and keeping only the best k
+     * in a bounded heap, so it runs in O(hotels * log k).
+     * @param input the query, in the same format as {@link #getCheapestHotel(String)}
+     * @param k how many quotes to return at most, positive
+     * @return the quotes, cheapest first, with the same tie-break as {@link Hotel#comparePrice}; hotels that
+     * do not offer the stay are not quoted
+     */
+    public List<Quote> getRankedQuotes(String input, int k) throws IllegalStateException {
+        if (k < 1) throw new IllegalArgumentException("k must be positive");
+        Catalog catalog = this.catalog;
+        FxTable fx = fxTable;
+        PriceIndex index = priceIndexOf(catalog);
+        List<Hotel> hotels = catalog.getSnapshots();
+        QueryScratch scratch = SCRATCH.get();
+        QueryParser parser = scratch.parser;
+        parser.parse(input);
+        ClientType clientType = parser.getClientType();
+        boolean indexed = index != null && index.covers(parser);
+        StayDates stay = indexed ? null : parser.toStayDates();
+
+        PriorityQueue<Quote> worstFirst = new PriorityQueue<>(k, Comparator.reverseOrder());
+        for (int i = 0; i < hotels.size(); i++) {
+            Hotel hotel = hotels.get(i);
+            Money price = indexed
+                    ? indexedPrice(hotel, index, i, clientType, parser)
+                    : hotel.getPrice(clientType, stay);
+            if (price == null) continue;
+            Money referencePrice = toReference(price, fx);
+            if (worstFirst.size() == k) {
+                Quote worst = worstFirst.peek();
+                if (Hotel.compare(referencePrice, hotel.getRank(), worst.getReferencePrice(), worst.getRank()) >= 0)
+                    continue;
+                worstFirst.poll();
+            }
+            worstFirst.add(new Quote(hotel.getName(), hotel.getRank(), price, referencePrice, i));
+        }
+        List<Quote> quotes = new ArrayList<>(worstFirst);
+        Collections.sort(quotes);
+        return quotes;
+    }
+
+    /**
+     * Finds the cheapest hotel for every client type at once, parsing the dates and walking the catalog only once.
+     * Client types that share a hotel's regular schedule reuse the price of that schedule, and only apply the
+     * pricing rules of the hotel on their own.
+     * @param input the dates only, without the client type: {@code ddMMMyyyy(EEE), ddMMMyyyy(EEE), ...}
+     * @return the name of the cheapest hotel of each client type, without the client types no hotel offers the stay to
+     */
+    public Map<ClientType, String> getCheapestHotelByClientType(String input) throws IllegalStateException {
+        Catalog catalog = this.catalog;
+        PriceIndex index = priceIndexOf(catalog);
+        FxTable fx = fxTable;
+        QueryScratch scratch = SCRATCH.get();
+        QueryParser parser = scratch.parser;
+        parser.parseDates(input);
+        List<Hotel> hotels = catalog.getSnapshots();
+        if (hotels.isEmpty()) throw new NoSuchElementException("No hotels available");
+        boolean indexed = index != null && index.covers(parser);
+        StayDates stay = indexed ? null : parser.toStayDates();
+
+        int regular = ClientType.REGULAR.ordinal();
+        Money[] prices = new Money[ClientType.count()];
+        Money[] cheapestPrices = new Money[ClientType.count()];
+        int[] cheapest = new int[ClientType.count()];
+        Arrays.fill(cheapest, -1);
+        for (int i = 0; i < hotels.size(); i++) {
+            Hotel hotel = hotels.get(i);
+            Money regularPrice = null;
+            for (int t = 0; t < prices.length; t++) {
+                ClientType clientType = ClientType.of(t);
+                Money schedulePrice = t != regular && !hotel.hasOwnSchedule(clientType)
+                        ? regularPrice
+                        : schedulePrice(hotel, indexed ? index : null, i, clientType, parser, stay);
+                if (t == regular) regularPrice = schedulePrice;
+                prices[t] = toReference(applyRules(hotel, schedulePrice, clientType, parser.size()), fx);
+                if (cheapest[t] < 0
+                        || Hotel.compare(prices[t], hotel.getRank(), cheapestPrices[t], hotels.get(cheapest[t]).getRank()) < 0) {
+                    cheapest[t] = i;
+                    cheapestPrices[t] = prices[t];
+                }
+            }
+        }
+        Map<ClientType, String> names = new EnumMap<>(ClientType.class);
+        for (int t = 0; t < prices.length; t++)
+            if (cheapestPrices[t] != null) names.put(ClientType.of(t), hotels.get(cheapest[t]).getName());
+        return names;
+    }
+
+    /**
+     * Sets the rooms {@link #getCheapestAvailableHotel(String)} and {@link #book(String)} check and take
+     * @param inventory the inventory, or {@code null} to stop tracking rooms
+     */
+    public void setRoomInventory(RoomInventory inventory) {
+        roomInventory = inventory;
+    }
+
+    public RoomInventory getRoomInventory() {
+        return roomInventory;
+    }
+
+    /**
+     * Finds the cheapest hotel with a room left on every night of the stay, with the same ordering as
+     * {@link #getCheapestHotel(String)} among them
+     * @throws NoSuchElementException if no hotel has rooms for the whole stay
+     */
+    public String getCheapestAvailableHotel(String input) throws IllegalStateException {
+        RoomInventory inventory = requireRoomInventory();
+        Catalog catalog = this.catalog;
+        QueryScratch scratch = SCRATCH.get();
+        scratch.parser.parse(input);
+        int hotel = getCheapestAvailableHotel(catalog, inventory, fxTable,
+                scratch.parser.getClientType(), scratch.parser.toStayDates());
+        return catalog.getSnapshots().get(hotel).getName();
+    }
+
+    /**
+     * Books a room on every night of the stay at the cheapest hotel that has them. Bookings of other stays and
+     * hotels go on at the same time; if another booking takes the last rooms first, the next cheapest is tried.
+     * @return the name of the hotel booked
+     * @throws NoSuchElementException if no hotel has rooms for the whole stay
+     */
+    public String book(String input) throws IllegalStateException {
+        RoomInventory inventory = requireRoomInventory();
+        QueryScratch scratch = SCRATCH.get();
+        scratch.parser.parse(input);
+        ClientType clientType = scratch.parser.getClientType();
+        StayDates stay = scratch.parser.toStayDates();
+        while (true) {
+            Catalog catalog = this.catalog;
+            int hotel = getCheapestAvailableHotel(catalog, inventory, fxTable, clientType, stay);
+            if (inventory.book(catalog.getHotel(hotel), stay)) return catalog.getSnapshots().get(hotel).getName();
+        }
+    }
+
+    private RoomInventory requireRoomInventory() {
+        RoomInventory inventory = roomInventory;
+        if (inventory == null) throw new IllegalStateException("No room inventory set");
+        return inventory;
+    }
+
+    /**
+     * Prices every hotel for the stay, only checking the rooms of the hotels cheaper than the best one
+     * found so far
+     * @return the position in the catalog of the cheapest available hotel
+     */
+    private static int getCheapestAvailableHotel(Catalog catalog, RoomInventory inventory, FxTable fx,
+                                                 ClientType clientType, StayDates stay) {
+        List<Hotel> hotels = catalog.getSnapshots();
+        int cheapest = -1;
+        Money cheapestPrice = null;
+        for (int i = 0; i < hotels.size(); i++) {
+            Hotel hotel = hotels.get(i);
+            Money price = toReference(hotel.getPrice(clientType, stay), fx);
+            if (price == null) continue;
+            if (cheapest >= 0 && Hotel.compare(price, hotel.getRank(), cheapestPrice, hotels.get(cheapest).getRank()) >= 0)
+                continue;
+            if (!inventory.isAvailable(catalog.getHotel(i), stay)) continue;
+            cheapest = i;
+            cheapestPrice = price;
+        }
+        if (cheapest < 0) throw new NoSuchElementException("No hotel has rooms for every night of the stay");
+        return cheapest;
+    }
+
+    /**
+     * Enables a materialized index of the prices of every hotel over a horizon of dates.
+     * Queries whose dates are all inside the horizon are then priced from the index, with one subtraction
+     * per hotel and run of consecutive dates. The index is built right away and rebuilt in the background
+     * whenever the catalog changes; until a rebuild finishes, queries are priced without it.
+     * @param from the first date of the horizon
+     * @param to the last date of the horizon, inclusive
+     */
+    public void enablePriceIndex(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) throw new IllegalArgumentException("Horizon must not end before it starts");
+        indexHorizon = new LocalDate[]{ from, to };
+        rebuildPriceIndex();
+    }
+
+    public void disablePriceIndex() {
+        indexHorizon = null;
+        priceIndex = null;
+    }
+
+    /**
+     * @return whether the price index is enabled and up to date with the catalog
+     */
+    public boolean isPriceIndexCurrent() {
+        return priceIndexOf(catalog) != null;
+    }
+
+    /**
+     * @return the price index if it was built from the given version of the catalog, {@code null} otherwise
+     */
+    private PriceIndex priceIndexOf(Catalog catalog) {
+        PriceIndex index = priceIndex;
+        return index != null && index.getVersion() == catalog.getVersion() ? index : null;
+    }
+
+    private void catalogChanged() {
+        if (indexHorizon == null || !indexRebuildPending.compareAndSet(false, true)) return;
+        indexBuilder().execute(() -> {
+            indexRebuildPending.set(false);
+            rebuildPriceIndex();
+        });
+    }
+
+    private synchronized ExecutorService indexBuilder() {
+        if (indexBuilder == null) indexBuilder = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "price-index-builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        return indexBuilder;
+    }
+
+    private void rebuildPriceIndex() {
+        LocalDate[] horizon = indexHorizon;
+        if (horizon == null) return;
+        Catalog snapshot = catalog;
+        PriceIndex index = new PriceIndex(snapshot.getSnapshots(), snapshot.getVersion(), horizon[0], horizon[1]);
+        synchronized (writeLock) {
+            PriceIndex current = priceIndex;
+            if (indexHorizon == horizon && (current == null || current.getVersion() <= index.getVersion()))
+                priceIndex = index;
+        }
+    }
+
+    /**
+     * Enables a cache of answers in front of {@link #getCheapestHotel(String)} and its batch variants.
+     * Answers are cached under the client type and night counts of the query, and only while every schedule
+     * of the catalog depends on the day of the week alone; any change to the catalog invalidates them.
+     * @param capacity how many answers to keep at most
+     */
+    public void enableQueryCache(int capacity) {
+        queryCache = new QueryCache(capacity);
+    }
+
+    public void disableQueryCache() {
+        queryCache = null;
+    }
+
+    /**
+     * @return how many queries were answered from the cache since it was enabled
+     */
+    public long getQueryCacheHits() {
+        QueryCache cache = queryCache;
+        return cache == null ? 0 : cache.getHits();
+    }
+
+    /**
+     * @return how many cacheable queries were not in the cache since it was enabled
+     */
+    public long getQueryCacheMisses() {
+        QueryCache cache = queryCache;
+        return cache == null ? 0 : cache.getMisses();
+    }
+
+    /**
+     * Starts recording metrics of {@link #getCheapestHotel(String)} and its batch variants, and publishes them
+     * as an MXBean in the platform MBean server. Without metrics, queries are not timed at all.
+     * @return the metrics, the same ones if they were already enabled
+     */
+    public ReservationMetrics enableMetrics() {
+        synchronized (writeLock) {
+            if (metrics == null) {
+                ReservationMetrics enabled = new ReservationMetrics(this);
+                enabled.register();
+                metrics = enabled;
+            }
+            return metrics;
+        }
+    }
+
+    public void disableMetrics() {
+        synchronized (writeLock) {
+            if (metrics == null) return;
+            metrics.unregister();
+            metrics = null;
+        }
+    }
+
+    /**
+     * @return the metrics, or {@code null} if they are disabled
+     */
+    public ReservationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Answers many queries at once, spreading them over the common {@link ForkJoinPool}.
+     * A query that fails does not affect the others; its error is reported in its own result.
+     * @param inputs the queries, in the same format as {@link #getCheapestHotel(String)}
+     * @return the result of each query, in the same order as the inputs
+     */
+    public List<QueryResult> getCheapestHotels(List<String> inputs) {
+        QueryResult[] results = new QueryResult[inputs.size()];
+        List<String> queries = inputs instanceof RandomAccess ? inputs : new ArrayList<>(inputs);
+        Catalog catalog = this.catalog;
+        ForkJoinPool.commonPool().invoke(
+                new BatchTask(catalog, priceIndexOf(catalog), fxTable, queries, results, 0, results.length));
+        return Arrays.asList(results);
+    }
+
+    /**
+     * @see #getCheapestHotels(List)
+     */
+    public List<QueryResult> getCheapestHotels(Stream<String> inputs) {
+        return getCheapestHotels(inputs.collect(Collectors.toList()));
+    }
+
+    /**
+     * @param index the price index of the catalog, or {@code null} to price the hotels from their schedules
+     * @param fx the exchange rates to compare prices with, or {@code null}
+     */
+    private String getCheapestHotel(Catalog catalog, PriceIndex index, FxTable fx, CharSequence input, QueryScratch scratch) {
+        ReservationMetrics metrics = this.metrics;
+        if (metrics == null) {
+            scratch.parser.parse(input);
+            return getCheapestHotel(catalog, index, fx, scratch);
+        }
+        long start = System.nanoTime();
+        try {
+            scratch.parser.parse(input);
+        } catch (RuntimeException e) {
+            metrics.parseFailed(e);
+            throw e;
+        }
+        long parsed = System.nanoTime();
+        metrics.parsed(scratch.parser.getClientType(), parsed - start);
+        try {
+            String cheapest = getCheapestHotel(catalog, index, fx, scratch);
+            metrics.priced(System.nanoTime() - parsed);
+            return cheapest;
+        } catch (RuntimeException e) {
+            metrics.failed(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Prices the query last parsed by the scratch parser
+     */
+    private String getCheapestHotel(Catalog catalog, PriceIndex index, FxTable fx, QueryScratch scratch) {
+        QueryParser parser = scratch.parser;
+        ClientType clientType = parser.getClientType();
+        List<Hotel> hotels = catalog.getSnapshots();
+        if (hotels.isEmpty()) throw new NoSuchElementException("No hotels available");
+
+        QueryCache cache = queryCache;
+        QueryCache.Key key = cache == null ? null : QueryCache.Key.of(catalog, fx, parser);
+        if (key != null) {
+            String cached = cache.get(catalog.getVersion(), key);
+            if (cached != null) return cached;
+        }
+        HullIndex hull = catalog.getHullIndex(clientType);
+        String cheapest;
+        if (hull != null && (fx == null || fx.getReference() == hull.getCurrency())) {
+            cheapest = hotels.get(hull.getCheapest(parser)).getName();
+        } else if (index != null && index.covers(parser)) {
+            cheapest = getCheapestHotel(hotels, index, fx, clientType, parser);
+        } else {
+            cheapest = getCheapestHotel(hotels, fx, clientType, scratch);
+        }
+        if (key != null) cache.put(catalog.getVersion(), key, cheapest);
+        return cheapest;
+    }
+
+    private static String getCheapestHotel(List<Hotel> hotels, FxTable fx, ClientType clientType, QueryScratch scratch) {
+        StayDates stay = scratch.parser.toStayDates();
+        Money[] totals = scratch.totals(hotels.size());
+        int cheapest = 0;
+        for (int i = 0; i < hotels.size(); i++) {
+            Hotel hotel = hotels.get(i);
+            totals[i] = toReference(hotel.getPrice(clientType, stay), fx);
+            if (Hotel.compare(totals[i], hotel.getRank(), totals[cheapest], hotels.get(cheapest).getRank()) < 0)
+                cheapest = i;
+        }
+        if (totals[cheapest] == null) throw new NoSuchElementException("No hotel offers the stay");
+        return hotels.get(cheapest).getName();
+    }
+
+    /**
+     * Same ordering as {@link Hotel#compare(Money, int, Money, int)}, on the minor units held by the index
+     */
+    private static String getCheapestHotel(List<Hotel> hotels, PriceIndex index, FxTable fx, ClientType clientType,
+                                           QueryParser stay) {
+        int cheapest = -1;
+        long cheapestPrice = 0;
+        for (int i = 0; i < hotels.size(); i++) {
+            if (fx == null && index.getCurrency(i, clientType) != index.getCurrency(0, clientType))
+                throw new IllegalArgumentException("Both Money objects must have the same currency");
+            long price = price(hotels.get(i), index, i, fx, clientType, stay);
+            if (price == PricingRules.NOT_OFFERED) continue;
+            int comparison = cheapest < 0 ? -1 : price == cheapestPrice
+                    ? -1 * Integer.compare(hotels.get(i).getRank(), hotels.get(cheapest).getRank())
+                    : Long.compare(price, cheapestPrice);
+            if (comparison < 0) {
+                cheapest = i;
+                cheapestPrice = price;
+            }
+        }
+        if (cheapest < 0) throw new NoSuchElementException("No hotel offers the stay");
+        return hotels.get(cheapest).getName();
+    }
+
+    /**
+     * @return the price of the hotel from the index after its pricing rules, in minor units of the reference currency
+     * if there are exchange rates, or {@link PricingRules#NOT_OFFERED}
+     */
+    private static long price(Hotel hotel, PriceIndex index, int position, FxTable fx, ClientType clientType,
+                              QueryParser stay) {
+        long price = index.getPrice(position, clientType, stay);
+        PricingRules rules = hotel.getPricingRules();
+        if (!rules.isEmpty()) {
+            price = rules.apply(price, clientType, stay.size());
+            if (price == PricingRules.NOT_OFFERED) return price;
+        }
+        return fx == null ? price : fx.toReference(price, index.getCurrency(position, clientType));
+    }
+
+    /**
+     * Splits a batch in halves until it is small enough, then answers each query with the scratch state of the worker thread
+     */
+    private class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Transient, as tasks only live in the pool that runs them and are never serialized
+         */
+        private final transient Catalog catalog;
+        private final transient PriceIndex index;
+        private final transient FxTable fx;
+        private final transient List<String> inputs;
+        private final transient QueryResult[] results;
+        private final int from;
+        private final int to;
+
+        BatchTask(Catalog catalog, PriceIndex index, FxTable fx, List<String> inputs, QueryResult[] results,
+                  int from, int to) {
+            this.catalog = catalog;
+            this.index = index;
+            this.fx = fx;
+            this.inputs = inputs;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > BATCH_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BatchTask(catalog, index, fx, inputs, results, from, middle),
+                        new BatchTask(catalog, index, fx, inputs, results, middle, to));
+                return;
+            }
+            QueryScratch scratch = SCRATCH.get();
+            for (int i = from; i < to; i++) {
+                try {
+                    results[i] = QueryResult.of(getCheapestHotel(catalog, index, fx, inputs.get(i), scratch));
+                } catch (RuntimeException e) {
+                    results[i] = QueryResult.failed(e);
+                }
+            }
+        }
     }
 }
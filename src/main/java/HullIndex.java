@@ -0,0 +1,176 @@
+import java.time.DayOfWeek;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Answers cheapest-hotel queries in O(log H) for catalogs priced only by {@link WeekendPriceSchedule}s.
+ *
+ * With weekday and weekend rates {@code a} and {@code b}, a stay of {@code w} weekdays and {@code e} weekend
+ * days costs {@code a * w + b * e}. Written as {@code (w + e) * (a + t * (b - a))} with {@code t = e / (w + e)},
+ * each hotel is a line in {@code t}, and the cheapest hotel of a stay is the line of the lower envelope of all
+ * the lines at its {@code t}. The envelope is built once per catalog version and searched by comparing the
+ * exact prices of neighbouring lines, so no fractions are involved.
+ *
+ * Lines that only touch the envelope at a single point are kept, so every hotel that can be the cheapest
+ * is on it, and ties at that point are broken the way {@link Hotel#compare(Money, int, Money, int)} does:
+ * highest rank first, then catalog order.
+ */
+final class HullIndex {
+    /**
+     * Below this many hotels, scanning them is as fast as searching an envelope
+     */
+    static final int MIN_HOTELS = 64;
+
+    private final Currency currency;
+    /**
+     * Weekday rate, in minor units, of each line of the envelope, by decreasing slope
+     */
+    private final long[] weekday;
+    private final long[] weekend;
+    private final int[] rank;
+    /**
+     * Position in the catalog of the hotel of each line
+     */
+    private final int[] hotel;
+
+    private HullIndex(Currency currency, long[] weekday, long[] weekend, int[] rank, int[] hotel) {
+        this.currency = currency;
+        this.weekday = weekday;
+        this.weekend = weekend;
+        this.rank = rank;
+        this.hotel = hotel;
+    }
+
+    /**
+     * @return the index of each client type, sharing the regular one with the client types no hotel has its
+     * own schedule for, with {@code null} for the client types it cannot be built for
+     */
+    static HullIndex[] build(List<Hotel> hotels) {
+        HullIndex[] indexes = new HullIndex[ClientType.count()];
+        HullIndex regular = of(hotels, ClientType.REGULAR);
+        for (int t = 0; t < indexes.length; t++) {
+            ClientType clientType = ClientType.of(t);
+            boolean own = false;
+            for (Hotel hotel : hotels) own |= hotel.hasOwnSchedule(clientType);
+            indexes[t] = own ? of(hotels, clientType) : regular;
+        }
+        return indexes;
+    }
+
+    /**
+     * @param hotels the hotels, in catalog order, which must not change
+     * @return the index of the client type, or {@code null} if a schedule is not a {@link WeekendPriceSchedule},
+     * a hotel has pricing rules, the rates are not all of the same currency, or they are too large to compare
+     * without overflow
+     */
+    static HullIndex of(List<Hotel> hotels, ClientType clientType) {
+        int size = hotels.size();
+        if (size == 0) return null;
+        long[] weekday = new long[size];
+        long[] weekend = new long[size];
+        int[] rank = new int[size];
+        Currency currency = null;
+        for (int i = 0; i < size; i++) {
+            Hotel hotel = hotels.get(i);
+            if (!(hotel.getSchedule(clientType) instanceof WeekendPriceSchedule) || !hotel.getPricingRules().isEmpty())
+                return null;
+            WeekendPriceSchedule schedule = (WeekendPriceSchedule) hotel.getSchedule(clientType);
+            if (currency == null) currency = schedule.getWeekdayPrice().getCurrency();
+            if (schedule.getWeekdayPrice().getCurrency() != currency || schedule.getWeekendPrice().getCurrency() != currency)
+                return null;
+            weekday[i] = schedule.getWeekdayPrice().getMinorUnits();
+            weekend[i] = schedule.getWeekendPrice().getMinorUnits();
+            rank[i] = hotel.getRank();
+        }
+        try {
+            return envelope(currency, weekday, weekend, rank);
+        } catch (ArithmeticException overflow) {
+            return null;
+        }
+    }
+
+    private static HullIndex envelope(Currency currency, long[] weekday, long[] weekend, int[] rank) {
+        long[] slope = new long[weekday.length];
+        Integer[] order = new Integer[weekday.length];
+        for (int i = 0; i < order.length; i++) {
+            slope[i] = Math.subtractExact(weekend[i], weekday[i]);
+            order[i] = i;
+        }
+        // by decreasing slope; among parallel lines the lowest first, and among equal lines the one that wins ties
+        Arrays.sort(order, Comparator.<Integer>comparingLong(i -> -slope[i])
+                .thenComparingLong(i -> weekday[i])
+                .thenComparingInt(i -> -rank[i])
+                .thenComparingInt(i -> i));
+
+        int[] lines = new int[order.length];
+        int size = 0;
+        for (int line : order) {
+            if (size > 0 && slope[lines[size - 1]] == slope[line]) continue;
+            while (size >= 2 && isAbove(lines[size - 2], lines[size - 1], line, weekday, slope)) size--;
+            lines[size++] = line;
+        }
+
+        HullIndex index = new HullIndex(currency, new long[size], new long[size], new int[size], new int[size]);
+        for (int k = 0; k < size; k++) {
+            index.weekday[k] = weekday[lines[k]];
+            index.weekend[k] = weekend[lines[k]];
+            index.rank[k] = rank[lines[k]];
+            index.hotel[k] = lines[k];
+        }
+        return index;
+    }
+
+    /**
+     * Whether the middle of three lines of decreasing slopes is above the envelope of the other two everywhere,
+     * i.e. the first crosses the third before it crosses the middle one. Lines crossing at the same point are kept.
+     */
+    private static boolean isAbove(int first, int middle, int last, long[] intercept, long[] slope) {
+        long firstToLast = Math.multiplyExact(Math.subtractExact(intercept[last], intercept[first]),
+                Math.subtractExact(slope[first], slope[middle]));
+        long firstToMiddle = Math.multiplyExact(Math.subtractExact(intercept[middle], intercept[first]),
+                Math.subtractExact(slope[first], slope[last]));
+        return firstToLast < firstToMiddle;
+    }
+
+    Currency getCurrency() {
+        return currency;
+    }
+
+    /**
+     * @return the position in the catalog of the cheapest hotel for the stay last parsed by the parser
+     */
+    int getCheapest(QueryParser stay) {
+        int weekends = 0;
+        for (int i = 0; i < stay.size(); i++)
+            if (DayOfWeekHistogram.dayOfWeek(stay.getEpochDay(i)) >= DayOfWeek.SATURDAY.ordinal()) weekends++;
+        return getCheapest(stay.size() - weekends, weekends);
+    }
+
+    /**
+     * Along the envelope, prices of a stay decrease down to the cheapest lines and then increase, so the first
+     * line not dearer than the next is found by binary search; the lines tied with it follow it.
+     * @return the position in the catalog of the cheapest hotel for the stay
+     * @throws ArithmeticException if a price overflows
+     */
+    int getCheapest(int weekdays, int weekends) {
+        int low = 0;
+        int high = weekday.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (price(middle, weekdays, weekends) <= price(middle + 1, weekdays, weekends)) high = middle;
+            else low = middle + 1;
+        }
+        int best = low;
+        long price = price(low, weekdays, weekends);
+        for (int k = low + 1; k < weekday.length && price(k, weekdays, weekends) == price; k++) {
+            if (rank[k] > rank[best] || rank[k] == rank[best] && hotel[k] < hotel[best]) best = k;
+        }
+        return hotel[best];
+    }
+
+    private long price(int line, int weekdays, int weekends) {
+        return Math.addExact(Math.multiplyExact(weekday[line], weekdays), Math.multiplyExact(weekend[line], weekends));
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations in power-of-two buckets: bucket {@code i} counts durations of
+ * {@code [2^i, 2^(i+1))} nanoseconds, bucket 0 also counting those under a nanosecond.
+ * Recording is a couple of striped increments, so threads recording at once do not contend.
+ */
+final class LatencyHistogram {
+    static final int BUCKETS = 40;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder total = new LongAdder();
+
+    LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) buckets[i] = new LongAdder();
+    }
+
+    void record(long nanos) {
+        int bucket = nanos <= 0 ? 0 : Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(nanos));
+        buckets[bucket].increment();
+        total.add(nanos);
+    }
+
+    /**
+     * @return the count of each bucket
+     */
+    long[] getCounts() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) counts[i] = buckets[i].sum();
+        return counts;
+    }
+
+    long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) count += bucket.sum();
+        return count;
+    }
+
+    long getMeanNanos() {
+        long count = getCount();
+        return count == 0 ? 0 : total.sum() / count;
+    }
+
+    /**
+     * @param fraction the fraction of durations, between 0 and 1
+     * @return the upper bound of the bucket the given fraction of the durations falls under
+     */
+    long getPercentileNanos(double fraction) {
+        long[] counts = getCounts();
+        long count = 0;
+        for (long c : counts) count += c;
+        long target = (long) Math.ceil(count * fraction);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (count > 0 && seen >= target) return (1L << (i + 1)) - 1;
+        }
+        return 0;
+    }
+
+    void reset() {
+        for (LongAdder bucket : buckets) bucket.reset();
+        total.reset();
+    }
+}
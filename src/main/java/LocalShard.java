@@ -0,0 +1,68 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A {@link Shard} answered by a {@link HotelReservation} of the same JVM.
+ */
+public final class LocalShard implements Shard {
+    private final HotelReservation reservation;
+    /**
+     * The position in the whole catalog of each hotel of the reservation, or {@code null} if it is the whole catalog
+     */
+    private final int[] positions;
+
+    /**
+     * @param reservation the hotels of the shard, ordered in the whole catalog by their position in it
+     */
+    public LocalShard(HotelReservation reservation) {
+        this(reservation, null);
+    }
+
+    private LocalShard(HotelReservation reservation, int[] positions) {
+        this.reservation = reservation;
+        this.positions = positions;
+    }
+
+    /**
+     * Takes the hotels of a catalog the shard is responsible for, remembering where they are in it so
+     * that ties between shards are broken as the catalog would break them
+     * @param hotels the whole catalog
+     * @param filter which hotels belong to the shard
+     */
+    public static LocalShard of(List<Hotel> hotels, Predicate<? super Hotel> filter) {
+        List<Hotel> selected = new ArrayList<>();
+        int[] positions = new int[hotels.size()];
+        for (int i = 0; i < hotels.size(); i++) {
+            if (!filter.test(hotels.get(i))) continue;
+            positions[selected.size()] = i;
+            selected.add(hotels.get(i));
+        }
+        return of(selected, Arrays.copyOf(positions, selected.size()));
+    }
+
+    /**
+     * @param hotels the hotels of the shard, in catalog order
+     * @param positions the position in the whole catalog of each hotel; not copied
+     */
+    static LocalShard of(List<Hotel> hotels, int[] positions) {
+        return new LocalShard(new HotelReservation(hotels), positions);
+    }
+
+    /**
+     * @return the reservation of the shard; hotels added to it later are ordered after the whole catalog
+     */
+    public HotelReservation getReservation() {
+        return reservation;
+    }
+
+    @Override
+    public Quote getCheapest(String query) {
+        List<Quote> quotes = reservation.getRankedQuotes(query, 1);
+        if (quotes.isEmpty()) return null;
+        Quote quote = quotes.get(0);
+        if (positions == null) return quote;
+        return quote.withOrder(quote.getOrder() < positions.length ? positions[quote.getOrder()] : Integer.MAX_VALUE);
+    }
+}
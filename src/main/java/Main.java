@@ -1,8 +1,53 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Objects;
 import java.util.Scanner;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--server")) {
+            int port = args.length > 1 ? Integer.parseInt(args[1]) : ReservationServer.DEFAULT_PORT;
+            ReservationServer server = new ReservationServer(new HotelReservation(), port);
+            server.start();
+            System.out.println("Servidor em http://localhost:" + server.getAddress().getPort()
+                    + " (POST /cheapest, /quotes?k=n)");
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--shard-worker")) {
+            if (args.length != 5) {
+                System.out.println("Uso: --shard-worker <porta> <catalogo binario> <shard> <shards>");
+                return;
+            }
+            int shard = Integer.parseInt(args[3]), shards = Integer.parseInt(args[4]);
+            List<Hotel> hotels = MappedCatalog.open(Path.of(args[2])).asHotels();
+            ShardWorker worker = new ShardWorker(
+                    LocalShard.of(hotels, hotel -> ShardedReservation.shardOf(hotel, shards) == shard),
+                    Integer.parseInt(args[1]));
+            worker.start();
+            System.out.println("Shard " + shard + "/" + shards + " na porta " + worker.getPort());
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--import")) {
+            if (args.length != 3) {
+                System.out.println("Uso: --import <catalogo csv> <catalogo binario>");
+                return;
+            }
+            int hotels = CatalogFile.importCsv(Path.of(args[1]), Path.of(args[2]));
+            System.out.println("Hotéis importados: " + hotels);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--batch")) {
+            if (args.length != 3) {
+                System.out.println("Uso: --batch <arquivo de entrada> <arquivo de saida>");
+                return;
+            }
+            BulkQueryRunner.Summary summary = new BulkQueryRunner(new HotelReservation())
+                    .run(Path.of(args[1]), Path.of(args[2]));
+            System.out.printf("Linhas: %d, erros: %d, tempo: %.3f s (%.0f linhas/s)%n", summary.getLines(),
+                    summary.getErrors(), summary.getNanos() / 1e9, summary.getLinesPerSecond());
+            return;
+        }
         Scanner scanner = new Scanner(System.in);
         HotelReservation hr = new HotelReservation();
         String ans;
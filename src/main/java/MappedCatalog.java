@@ -0,0 +1,206 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.util.AbstractList;
+import java.util.Currency;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A catalog in the binary format written by {@link CatalogFile}, memory-mapped and read in place.
+ *
+ * Opening a catalog only maps the file and reads its header; records are decoded when they are read, and
+ * {@link #getCheapestHotel(String)} prices every hotel straight from the mapped rates, only decoding the name
+ * of the answer. Hotels are materialized as {@link Hotel} objects only when asked for. Instances are immutable
+ * and thread-safe.
+ */
+public final class MappedCatalog {
+    private static final ThreadLocal<QueryParser> PARSER = ThreadLocal.withInitial(QueryParser::new);
+
+    private final Path file;
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int tiers;
+    private final int recordSize;
+    private final int recordsOffset;
+    private final int namesOffset;
+    private final Currency[] currencies;
+
+    private MappedCatalog(Path file, ByteBuffer buffer, int size, int tiers, int recordsOffset, int namesOffset,
+                          Currency[] currencies) {
+        this.file = file;
+        this.buffer = buffer;
+        this.size = size;
+        this.tiers = tiers;
+        this.recordSize = CatalogFile.recordSize(tiers);
+        this.recordsOffset = recordsOffset;
+        this.namesOffset = namesOffset;
+        this.currencies = currencies;
+    }
+
+    /**
+     * @throws IOException if the file cannot be read or is not a catalog of a supported version
+     */
+    public static MappedCatalog open(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Catalog is too large: " + file);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.limit() < CatalogFile.HEADER_SIZE || buffer.getInt(0) != CatalogFile.MAGIC)
+            throw new IOException("Not a catalog file: " + file);
+        if (buffer.getShort(4) != CatalogFile.FORMAT_VERSION)
+            throw new IOException("Unsupported catalog version " + buffer.getShort(4) + ": " + file);
+        int tiers = buffer.getShort(6);
+        int size = buffer.getInt(8);
+        int currencyCount = buffer.getInt(12);
+        long namesOffset = buffer.getLong(16);
+        long recordsOffset = buffer.getLong(24);
+        if (tiers < 1 || size < 0 || currencyCount < 0
+                || recordsOffset != CatalogFile.HEADER_SIZE + (long) CatalogFile.CURRENCY_SIZE * currencyCount
+                || namesOffset != recordsOffset + (long) CatalogFile.recordSize(tiers) * size
+                || namesOffset > buffer.limit())
+            throw new IOException("Corrupt catalog header: " + file);
+        Currency[] currencies = new Currency[currencyCount];
+        byte[] code = new byte[3];
+        for (int i = 0; i < currencyCount; i++) {
+            buffer.get(CatalogFile.HEADER_SIZE + CatalogFile.CURRENCY_SIZE * i, code);
+            try {
+                currencies[i] = Currency.getInstance(new String(code, StandardCharsets.US_ASCII));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unknown currency in catalog: " + file, e);
+            }
+        }
+        return new MappedCatalog(file, buffer, size, tiers, (int) recordsOffset, (int) namesOffset, currencies);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int record(int hotel) {
+        if (hotel < 0 || hotel >= size) throw new IndexOutOfBoundsException(hotel);
+        return recordsOffset + hotel * recordSize;
+    }
+
+    /**
+     * @throws IllegalStateException if the name of the record is not inside the names area of the file
+     */
+    public String getName(int hotel) {
+        int record = record(hotel);
+        int offset = buffer.getInt(record);
+        int length = buffer.getInt(record + 4);
+        if (offset < 0 || length < 0 || (long) namesOffset + offset + length > buffer.limit())
+            throw new IllegalStateException("Corrupt catalog: name of hotel " + hotel + " is outside the file " + file);
+        byte[] name = new byte[length];
+        buffer.get(namesOffset + offset, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    public int getRank(int hotel) {
+        return buffer.getInt(record(hotel) + 8);
+    }
+
+    public Currency getCurrency(int hotel) {
+        return currencies[buffer.getShort(record(hotel) + 12)];
+    }
+
+    /**
+     * @return whether the hotel has rates of its own for the client type, rather than the regular ones
+     */
+    public boolean hasOwnRates(int hotel, ClientType clientType) {
+        return clientType.ordinal() < tiers && (buffer.getShort(record(hotel) + 14) & 1 << clientType.ordinal()) != 0;
+    }
+
+    /**
+     * @return the offset of the weekday rate of the client type in the record, the weekend rate following it;
+     * client types newer than the file use the regular rates
+     */
+    private int rates(int record, ClientType clientType) {
+        int tier = clientType.ordinal() < tiers ? clientType.ordinal() : ClientType.REGULAR.ordinal();
+        return record + CatalogFile.RECORD_HEADER_SIZE + 16 * tier;
+    }
+
+    public Money getWeekdayRate(int hotel, ClientType clientType) {
+        return Money.ofMinorUnits(buffer.getLong(rates(record(hotel), clientType)), getCurrency(hotel));
+    }
+
+    public Money getWeekendRate(int hotel, ClientType clientType) {
+        return Money.ofMinorUnits(buffer.getLong(rates(record(hotel), clientType) + 8), getCurrency(hotel));
+    }
+
+    /**
+     * Finds the cheapest hotel from the mapped records, in the order of {@link HotelReservation#getCheapestHotel(String)}
+     * @throws IllegalStateException if the query is malformed
+     * @throws IllegalArgumentException if the hotels do not all price in the same currency
+     */
+    public String getCheapestHotel(String input) throws IllegalStateException, IllegalArgumentException {
+        if (size == 0) throw new NoSuchElementException("No hotels available");
+        QueryParser parser = PARSER.get();
+        parser.parse(input);
+        int weekends = 0;
+        for (int i = 0; i < parser.size(); i++)
+            if (DayOfWeekHistogram.dayOfWeek(parser.getEpochDay(i)) >= DayOfWeek.SATURDAY.ordinal()) weekends++;
+        int weekdays = parser.size() - weekends;
+        ClientType clientType = parser.getClientType();
+
+        int cheapest = 0;
+        long cheapestPrice = 0;
+        int cheapestRank = 0;
+        short currency = buffer.getShort(recordsOffset + 12);
+        for (int hotel = 0, record = recordsOffset; hotel < size; hotel++, record += recordSize) {
+            if (buffer.getShort(record + 12) != currency) {
+                throw new IllegalArgumentException("Catalog " + file + " mixes currency " + currency + " and "
+                        + buffer.getShort(record + 12) + " of its currency table; it cannot be compared without rates");
+            }
+            int rates = rates(record, clientType);
+            long price = Math.addExact(Math.multiplyExact(buffer.getLong(rates), weekdays),
+                    Math.multiplyExact(buffer.getLong(rates + 8), weekends));
+            int rank = buffer.getInt(record + 8);
+            if (hotel == 0 || price < cheapestPrice || price == cheapestPrice && rank > cheapestRank) {
+                cheapest = hotel;
+                cheapestPrice = price;
+                cheapestRank = rank;
+            }
+        }
+        return getName(cheapest);
+    }
+
+    /**
+     * @return the hotel, as a new {@link Hotel} with a {@link WeekendPriceSchedule} per client type it has rates for
+     */
+    public Hotel getHotel(int hotel) {
+        Map<ClientType, PriceSchedule> schedules = new EnumMap<>(ClientType.class);
+        for (int t = 0; t < ClientType.count(); t++) {
+            ClientType clientType = ClientType.of(t);
+            if (clientType == ClientType.REGULAR || hasOwnRates(hotel, clientType)) {
+                schedules.put(clientType,
+                        new WeekendPriceSchedule(getWeekdayRate(hotel, clientType), getWeekendRate(hotel, clientType)));
+            }
+        }
+        return new Hotel(getName(hotel), getRank(hotel), schedules);
+    }
+
+    /**
+     * @return a view of the hotels, each materialized when it is read
+     */
+    public List<Hotel> asHotels() {
+        return new AbstractList<Hotel>() {
+            @Override
+            public Hotel get(int index) {
+                return getHotel(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
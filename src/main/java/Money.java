@@ -53,6 +53,15 @@ public class Money {
     }
 
     private static final int[] cents = { 1, 10, 100, 1000 };
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+    /**
+     * Largest magnitude of a double whose integral value is exactly representable, as a {@code long} too
+     */
+    private static final double MAX_EXACT_DOUBLE = 0x1p53;
     /**
      * Used to convert a decimal major unit to complete minor units.
      * @return How many minor units make a major unit
@@ -73,6 +82,20 @@ public class Money {
         return money;
     }
 
+    /**
+     * Factory method to create new {@link Money} without the amount conversion
+     * @param amount the amount, in minor units (e.g. cents)
+     * @param currency the currency, not {@code null}
+     * @return new {@link Money} with the amount
+     */
+    static Money ofMinorUnits(long amount, Currency currency) {
+        if (currency == null) throw new NullPointerException("Currency must not be null");
+        Money money = new Money();
+        money.currency = currency;
+        money.amount = amount;
+        return money;
+    }
+
     /**
      * Factory method to create new {@link Money} from a {@link BigDecimal} amount
      * @param amount the amount, in major units (e.g. 2.50 dollars)
@@ -87,6 +110,58 @@ public class Money {
         return money;
     }
 
+    /**
+     * Scales the amount by the ratio {@code numerator / denominator} with long arithmetic, rounding once
+     * the same way {@link BigDecimal} would.
+     * @param denominator the denominator, not {@code 0}
+     * @return new {@link Money} with the scaled amount, or {@code null} if the product overflows or the
+     * result needs rounding with {@link RoundingMode#UNNECESSARY}, so the caller should use {@link BigDecimal}
+     */
+    private Money scaleExact(long numerator, long denominator, RoundingMode roundingMode) {
+        long product;
+        try {
+            product = Math.multiplyExact(amount, numerator);
+            if (denominator < 0) {
+                product = Math.negateExact(product);
+                denominator = Math.negateExact(denominator);
+            }
+        } catch (ArithmeticException overflow) {
+            return null;
+        }
+        long quotient = product / denominator;
+        long remainder = Math.abs(product % denominator);
+        if (remainder == 0) return newMoney(quotient);
+        long away = quotient + Long.signum(product);
+        switch (roundingMode) {
+            case UP: return newMoney(away);
+            case DOWN: return newMoney(quotient);
+            case CEILING: return newMoney(product > 0 ? away : quotient);
+            case FLOOR: return newMoney(product < 0 ? away : quotient);
+            case UNNECESSARY: return null;
+            default:
+                int half = Long.compare(remainder, denominator - remainder);
+                if (half > 0) return newMoney(away);
+                if (half < 0) return newMoney(quotient);
+                if (roundingMode == RoundingMode.HALF_UP) return newMoney(away);
+                if (roundingMode == RoundingMode.HALF_DOWN) return newMoney(quotient);
+                return newMoney((quotient & 1) == 0 ? quotient : away);
+        }
+    }
+
+    /**
+     * @return whether the factor is a whole number that a {@code long} holds exactly
+     */
+    private static boolean isIntegral(double factor) {
+        return Math.abs(factor) < MAX_EXACT_DOUBLE && factor == Math.rint(factor);
+    }
+
+    /**
+     * @return whether the factor is a decimal fraction whose unscaled value and power of ten both fit in a {@code long}
+     */
+    private static boolean isCompact(BigDecimal factor) {
+        return factor.scale() >= 0 && factor.scale() < POWERS_OF_TEN.length && factor.precision() < POWERS_OF_TEN.length;
+    }
+
     /**
      * Static factory method to create new {@link Money} with preset currency "BRL"
      * @param amount the amount, in major units (e.g. 2.50 dollars)
@@ -135,6 +210,8 @@ public class Money {
      */
     public Money multiply(long factor) {
         if (factor == 1L) return this;
+        Money result = scaleExact(factor, 1L, RoundingMode.HALF_EVEN);
+        if (result != null) return result;
         return multiply(BigDecimal.valueOf(factor));
     }
 
@@ -145,6 +222,10 @@ public class Money {
      */
     public Money multiply(double factor) {
         if (factor == 1.0d) return this;
+        if (isIntegral(factor)) {
+            Money result = scaleExact((long) factor, 1L, RoundingMode.HALF_EVEN);
+            if (result != null) return result;
+        }
         return multiply(BigDecimal.valueOf(factor));
     }
 
@@ -169,6 +250,10 @@ public class Money {
         if (factor == null) throw new NullPointerException("Amount should not be null");
         if (roundingMode == null) throw new NullPointerException("Rouding mode should not be null");
         if (Objects.equals(factor, BigDecimal.ONE)) return this;
+        if (isCompact(factor)) {
+            Money result = scaleExact(factor.unscaledValue().longValue(), POWERS_OF_TEN[factor.scale()], roundingMode);
+            if (result != null) return result;
+        }
         return newMoney(getAmount().multiply(factor), roundingMode);
     }
 
@@ -180,6 +265,8 @@ public class Money {
     public Money divide(long factor) {
         if (factor == 1L) return this;
         if (factor == 0) throw new IllegalArgumentException("Divisor must not be 0");
+        Money result = scaleExact(1L, factor, RoundingMode.HALF_EVEN);
+        if (result != null) return result;
         return divide(BigDecimal.valueOf(factor));
     }
 
@@ -191,6 +278,10 @@ public class Money {
     public Money divide(double factor) {
         if (factor == 1.0d) return this;
         if (factor == 0) throw new IllegalArgumentException("Divisor must not be 0");
+        if (isIntegral(factor)) {
+            Money result = scaleExact(1L, (long) factor, RoundingMode.HALF_EVEN);
+            if (result != null) return result;
+        }
         return divide(BigDecimal.valueOf(factor));
     }
 
@@ -214,6 +305,10 @@ public class Money {
     public Money divide(BigDecimal factor, RoundingMode roundingMode) {
         if (Objects.equals(factor, BigDecimal.ONE)) return this;
         if (Objects.equals(factor, BigDecimal.ZERO)) throw new IllegalArgumentException("Divisor must not be 0");
+        if (factor != null && roundingMode != null && factor.signum() != 0 && isCompact(factor)) {
+            Money result = scaleExact(POWERS_OF_TEN[factor.scale()], factor.unscaledValue().longValue(), roundingMode);
+            if (result != null) return result;
+        }
         return newMoney(getAmount().divide(factor, roundingMode), roundingMode);
     }
 
@@ -280,6 +375,14 @@ public class Money {
         return BigDecimal.valueOf(amount, currency.getDefaultFractionDigits());
     }
 
+    /**
+     * Getter for the amount without the conversion to major units
+     * @return the amount, in minor units (e.g. cents)
+     */
+    long getMinorUnits() {
+        return amount;
+    }
+
     /**
      * Getter for the currency
      * @return the currency
@@ -0,0 +1,118 @@
+import java.util.Currency;
+
+/**
+ * Mutable running total of {@link Money} amounts of a single currency.
+ *
+ * The total is kept in minor units in a primitive {@code long}, so adding amounts does not
+ * allocate and a {@link Money} is only created by {@link #toMoney()}. Overflowing the total
+ * throws an {@link ArithmeticException} instead of wrapping around.
+ * Instances are not thread-safe.
+ */
+public final class MoneyAccumulator {
+    /**
+     * The currency, {@code null} until the first amount is added when not given upfront.
+     */
+    private Currency currency;
+    /**
+     * The total, in minor units (e.g. cents)
+     */
+    private long total;
+
+    /**
+     * Creates an accumulator that takes the currency of the first amount added to it
+     */
+    public MoneyAccumulator() {}
+
+    /**
+     * @param currency the currency, not {@code null}
+     */
+    public MoneyAccumulator(Currency currency) {
+        if (currency == null) throw new NullPointerException("Currency must not be null");
+        this.currency = currency;
+    }
+
+    /**
+     * Checks if the currency is the same as the one of a {@link Money}, adopting it if none was set yet
+     * @param money the {@link Money} object
+     */
+    private void assertSameCurrencyAs(Money money) {
+        if (currency == null) currency = money.getCurrency();
+        else if (currency != money.getCurrency())
+            throw new IllegalArgumentException("Both Money objects must have the same currency");
+    }
+
+    /**
+     * Adds an amount to the total
+     * @param money the amount, ignored if {@code null}
+     * @return this accumulator
+     */
+    public MoneyAccumulator add(Money money) {
+        if (money == null) return this;
+        assertSameCurrencyAs(money);
+        total = Math.addExact(total, money.getMinorUnits());
+        return this;
+    }
+
+    /**
+     * Adds an amount to the total a number of times
+     * @param money the amount, ignored if {@code null}
+     * @param times how many times to add it
+     * @return this accumulator
+     */
+    public MoneyAccumulator add(Money money, long times) {
+        if (money == null) return this;
+        assertSameCurrencyAs(money);
+        total = Math.addExact(total, Math.multiplyExact(money.getMinorUnits(), times));
+        return this;
+    }
+
+    /**
+     * Subtracts an amount from the total
+     * @param money the amount, ignored if {@code null}
+     * @return this accumulator
+     */
+    public MoneyAccumulator subtract(Money money) {
+        if (money == null) return this;
+        assertSameCurrencyAs(money);
+        total = Math.subtractExact(total, money.getMinorUnits());
+        return this;
+    }
+
+    /**
+     * Sets the total back to zero, keeping the currency
+     * @return this accumulator
+     */
+    public MoneyAccumulator reset() {
+        total = 0;
+        return this;
+    }
+
+    /**
+     * Getter for the currency
+     * @return the currency, or {@code null} if it was not given and nothing was added yet
+     */
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    /**
+     * @return the total, in minor units (e.g. cents)
+     */
+    long getMinorUnits() {
+        return total;
+    }
+
+    /**
+     * @return new {@link Money} containing the total amount
+     * @throws IllegalStateException if the currency is still unknown
+     */
+    public Money toMoney() {
+        if (currency == null) throw new IllegalStateException("Nothing was accumulated and no currency was given");
+        return Money.ofMinorUnits(total, currency);
+    }
+
+    @Override
+    public String toString() {
+        return currency == null ? "0" : toMoney().toString();
+    }
+}
@@ -0,0 +1,100 @@
+import java.time.LocalDate;
+import java.util.Currency;
+import java.util.List;
+
+/**
+ * Materialized prices of a catalog over a horizon of dates.
+ *
+ * For each hotel and client type it holds the cumulative price of the first {@code i} days of the horizon
+ * in minor units, so any run of consecutive dates inside the horizon is priced with one subtraction.
+ * The index is immutable; it is rebuilt whenever the catalog it was built from changes.
+ */
+final class PriceIndex {
+    private final long version;
+    private final long start;
+    private final int days;
+    /**
+     * Cumulative prices, indexed by {@code [clientType.ordinal()][hotel][day]}
+     */
+    private final long[][][] prefixes;
+    /**
+     * Currency of each prefix array, indexed by {@code [clientType.ordinal()][hotel]}
+     */
+    private final Currency[][] currencies;
+
+    /**
+     * @param hotels the hotels of the catalog, in catalog order, which must not change
+     * @param version the version of the catalog the hotels were taken from
+     * @param from the first date of the horizon
+     * @param to the last date of the horizon, inclusive
+     * @throws IllegalArgumentException if a schedule changes currency within the horizon
+     */
+    PriceIndex(List<Hotel> hotels, long version, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) throw new IllegalArgumentException("Horizon must not end before it starts");
+        this.version = version;
+        this.start = from.toEpochDay();
+        this.days = Math.toIntExact(to.toEpochDay() - start + 1);
+        this.prefixes = new long[ClientType.count()][hotels.size()][];
+        this.currencies = new Currency[ClientType.count()][hotels.size()];
+        for (int h = 0; h < hotels.size(); h++) {
+            Hotel hotel = hotels.get(h);
+            for (int t = 0; t < ClientType.count(); t++) {
+                ClientType clientType = ClientType.of(t);
+                if (hotel.hasOwnSchedule(clientType) || clientType == ClientType.REGULAR) {
+                    index(t, h, hotel.getSchedule(clientType));
+                } else {
+                    prefixes[t][h] = prefixes[ClientType.REGULAR.ordinal()][h];
+                    currencies[t][h] = currencies[ClientType.REGULAR.ordinal()][h];
+                }
+            }
+        }
+    }
+
+    private void index(int clientType, int hotel, PriceSchedule schedule) {
+        long[] prefix = new long[days + 1];
+        MoneyAccumulator total = new MoneyAccumulator();
+        for (int i = 0; i < days; i++) {
+            total.add(schedule.getPrice(LocalDate.ofEpochDay(start + i)));
+            prefix[i + 1] = total.getMinorUnits();
+        }
+        prefixes[clientType][hotel] = prefix;
+        currencies[clientType][hotel] = total.getCurrency();
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return whether every date of the parsed query is inside the horizon
+     */
+    boolean covers(QueryParser stay) {
+        for (int i = 0; i < stay.size(); i++) {
+            long offset = stay.getEpochDay(i) - start;
+            if (offset < 0 || offset >= days) return false;
+        }
+        return true;
+    }
+
+    Currency getCurrency(int hotel, ClientType clientType) {
+        return currencies[clientType.ordinal()][hotel];
+    }
+
+    /**
+     * Prices a stay covered by the index, with one subtraction per run of consecutive dates
+     * @return the price, in minor units of {@link #getCurrency(int, ClientType)}
+     */
+    long getPrice(int hotel, ClientType clientType, QueryParser stay) {
+        long[] prefix = prefixes[clientType.ordinal()][hotel];
+        long total = 0;
+        int runStart = 0;
+        for (int i = 1; i <= stay.size(); i++) {
+            if (i < stay.size() && stay.getEpochDay(i) == stay.getEpochDay(i - 1) + 1) continue;
+            int from = (int) (stay.getEpochDay(runStart) - start);
+            int to = (int) (stay.getEpochDay(i - 1) - start) + 1;
+            total = Math.addExact(total, prefix[to] - prefix[from]);
+            runStart = i;
+        }
+        return total;
+    }
+}
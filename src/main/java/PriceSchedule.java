@@ -1,20 +1,65 @@
 import java.time.LocalDate;
 import java.util.Currency;
 
+/**
+ * Nightly prices of a hotel for a client type.
+ *
+ * Contiguous ranges of nights are the unit of pricing: {@link #getPrice(LocalDate, LocalDate)} is what
+ * stays are priced with, one call per run of consecutive dates. Its default walks the range night by night,
+ * so implementations that can do better (e.g. in constant time) should override it.
+ */
 public interface PriceSchedule {
     Money getPrice(LocalDate date);
+
+    /**
+     * Registers a listener called after any of the prices of this schedule changes.
+     * Schedules whose prices cannot change after construction may ignore it, as the default does.
+     */
+    default void addChangeListener(Runnable listener) {}
+
+    default void removeChangeListener(Runnable listener) {}
+
+    /**
+     * @return a copy of this schedule that keeps its current prices, or the schedule itself if they cannot change
+     */
+    default PriceSchedule snapshot() {
+        return this;
+    }
+
+    /**
+     * @return a price no night of this schedule is cheaper than, or {@code null} if it is not known, as the
+     * default assumes
+     */
+    default Money getMinimumPrice() {
+        return null;
+    }
+
+    /**
+     * Prices every night of a range
+     * @param startingDate the first night of the range
+     * @param endingDate the last night of the range, inclusive
+     * @return the total of the range, zero if {@code endingDate} is before {@code startingDate}
+     */
     default Money getPrice(LocalDate startingDate, LocalDate endingDate) {
         LocalDate date = startingDate;
-        Money total = new Money(0, getPrice(date).getCurrency());
+        MoneyAccumulator total = new MoneyAccumulator(getPrice(date).getCurrency());
         while (!date.isAfter(endingDate)) {
-            total = total.add(getPrice(date));
+            total.add(getPrice(date));
             date = date.plusDays(1);
         }
-        return total;
+        return total.toMoney();
     }
-    default Money getPrice(LocalDate[] dates) {
-        Money total = new Money(0, getPrice(dates[0]).getCurrency());
-        for (LocalDate date : dates) total = total.add(getPrice(date));
-        return total;
+
+    /**
+     * Prices the stay one run of consecutive nights at a time, through {@link #getPrice(LocalDate, LocalDate)}
+     */
+    default Money getPrice(StayDates stay) {
+        MoneyAccumulator total = new MoneyAccumulator();
+        for (int start = 0, end; start < stay.size(); start = end) {
+            end = stay.runEnd(start);
+            total.add(getPrice(LocalDate.ofEpochDay(stay.getEpochDay(start)),
+                    LocalDate.ofEpochDay(stay.getEpochDay(end - 1))));
+        }
+        return total.toMoney();
     }
 }
@@ -0,0 +1,77 @@
+import java.util.function.Consumer;
+
+/**
+ * A standing query registered with {@link HotelReservation#watch(String, Consumer)}.
+ *
+ * It keeps the cheapest hotel of its stay and client type up to date as the catalog changes, and calls its
+ * listener each time a different hotel becomes the cheapest one. Watches of the same stay and client type
+ * share their evaluation.
+ */
+public final class PriceWatch {
+    private final HotelReservation reservation;
+    private final String query;
+    private final ClientType clientType;
+    private final StayDates stay;
+    private final Consumer<PriceWatch> listener;
+    /**
+     * The shared evaluation of the query, {@code null} once cancelled
+     */
+    volatile PriceWatches.Standing standing;
+
+    PriceWatch(HotelReservation reservation, String query, ClientType clientType, StayDates stay,
+               Consumer<PriceWatch> listener) {
+        this.reservation = reservation;
+        this.query = query;
+        this.clientType = clientType;
+        this.stay = stay;
+        this.listener = listener;
+    }
+
+    /**
+     * @return the query, as it was given
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    public ClientType getClientType() {
+        return clientType;
+    }
+
+    public StayDates getStay() {
+        return stay;
+    }
+
+    /**
+     * @return the name of the cheapest hotel, or {@code null} if the catalog is empty, its prices
+     * cannot be compared or the watch was cancelled
+     */
+    public String getWinner() {
+        PriceWatches.Standing standing = this.standing;
+        return standing == null ? null : standing.getWinnerName();
+    }
+
+    /**
+     * @return the error that prevented comparing the prices of the catalog, or {@code null} if there is none
+     */
+    public RuntimeException getError() {
+        PriceWatches.Standing standing = this.standing;
+        return standing == null ? null : standing.getError();
+    }
+
+    /**
+     * Stops following the catalog; the listener is not called anymore
+     */
+    public void cancel() {
+        reservation.unwatch(this);
+    }
+
+    void winnerChanged() {
+        if (standing != null) listener.accept(this);
+    }
+
+    @Override
+    public String toString() {
+        return query + " -> " + getWinner();
+    }
+}
@@ -0,0 +1,311 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The standing queries of a {@link HotelReservation}, re-evaluated incrementally as its catalog changes.
+ *
+ * Each distinct stay and client type is evaluated once, however many {@link PriceWatch watches} share it,
+ * and remembers its cheapest hotel with that hotel's price and rank. When a single hotel changes, only that
+ * hotel is priced again: it either takes the place of the cheapest one, or is the cheapest one and stays
+ * so unless it got more expensive, in which case the whole catalog is priced again. Queries are indexed by
+ * their cheapest hotel, so removing a hotel only touches the queries it was the cheapest for, and by the
+ * price per night of their cheapest hotel, so a changed hotel is only priced for the queries it is the
+ * cheapest for and the ones whose price per night its {@link Hotel#getMinimumNightlyPrice cheapest night}
+ * does not exceed. A hotel that does not know its cheapest night is priced for every query of the client type.
+ *
+ * Not thread-safe; the reservation calls it while holding its write lock, in catalog version order.
+ */
+final class PriceWatches {
+    private final Map<ClientType, Map<StayDates, Standing>> standings = new EnumMap<>(ClientType.class);
+    /**
+     * The queries of each cheapest hotel, by identity of the hotel itself (not of its snapshot)
+     */
+    private final Map<Hotel, Set<Standing>> byWinner = new IdentityHashMap<>();
+    /**
+     * The queries without a cheapest hotel, because the catalog was empty or its prices could not be compared
+     */
+    private final Set<Standing> unresolved = new LinkedHashSet<>();
+    /**
+     * The queries with a cheapest hotel of each client type, by the price per night of that hotel
+     */
+    private final Map<ClientType, NavigableSet<Standing>> byNightlyPrice = new EnumMap<>(ClientType.class);
+    private int size;
+    private long sequence;
+
+    private static final Comparator<Standing> NIGHTLY_PRICE_ORDER =
+            ((Comparator<Standing>) PriceWatches::compareNightlyPrices).thenComparingLong(s -> s.sequence);
+
+    /**
+     * Evaluation of the query shared by the watches of the same stay and client type
+     */
+    static final class Standing {
+        private final ClientType clientType;
+        private final StayDates stay;
+        private final int nights;
+        /**
+         * Tie-break of queries with the same price per night in {@link #byNightlyPrice}
+         */
+        private final long sequence;
+        private final List<PriceWatch> watches = new CopyOnWriteArrayList<>();
+        private Hotel winner;
+        private Money winnerPrice;
+        /**
+         * The price of the cheapest hotel in minor units, which over {@link #nights} is its price per night
+         */
+        private long winnerMinorUnits;
+        private int winnerRank;
+        private volatile String winnerName;
+        private volatile RuntimeException error;
+
+        private Standing(ClientType clientType, StayDates stay, int nights, long sequence) {
+            this.clientType = clientType;
+            this.stay = stay;
+            this.nights = nights;
+            this.sequence = sequence;
+        }
+
+        String getWinnerName() {
+            return winnerName;
+        }
+
+        RuntimeException getError() {
+            return error;
+        }
+    }
+
+    /**
+     * Registers a watch, evaluating its query against the catalog unless another watch already did
+     */
+    void add(PriceWatch watch, Catalog catalog, FxTable fx) {
+        Map<StayDates, Standing> ofClientType = standings.computeIfAbsent(watch.getClientType(), t -> new HashMap<>());
+        Standing standing = ofClientType.get(watch.getStay());
+        if (standing == null) {
+            standing = new Standing(watch.getClientType(), watch.getStay(), watch.getStay().size(), sequence++);
+            ofClientType.put(watch.getStay(), standing);
+            evaluate(standing, catalog, fx);
+        }
+        standing.watches.add(watch);
+        watch.standing = standing;
+        size++;
+    }
+
+    void remove(PriceWatch watch) {
+        Standing standing = watch.standing;
+        if (standing == null) return;
+        watch.standing = null;
+        standing.watches.remove(watch);
+        size--;
+        if (!standing.watches.isEmpty()) return;
+        standings.get(standing.clientType).remove(standing.stay);
+        setWinnerPrice(standing, null);
+        index(standing, null);
+        unresolved.remove(standing);
+    }
+
+    /**
+     * Re-evaluates the queries a change of one hotel can affect: the ones it was the cheapest for, and if it
+     * is in the catalog the ones it may now be cheaper for
+     * @param catalog the catalog after the change
+     * @param hotel the hotel added, removed or changed
+     * @return the watches whose cheapest hotel changed, to be notified once the write lock is released
+     */
+    List<PriceWatch> hotelChanged(Catalog catalog, FxTable fx, Hotel hotel) {
+        if (size == 0) return Collections.emptyList();
+        List<Standing> changed = new ArrayList<>();
+        for (Standing standing : new ArrayList<>(unresolved))
+            if (evaluate(standing, catalog, fx)) changed.add(standing);
+
+        int position = catalog.indexOf(hotel);
+        if (position < 0) {
+            Set<Standing> won = byWinner.get(hotel);
+            if (won != null) for (Standing standing : new ArrayList<>(won))
+                if (evaluate(standing, catalog, fx)) changed.add(standing);
+            return watchesOf(changed);
+        }
+        Hotel snapshot = catalog.getSnapshots().get(position);
+        Set<Standing> won = byWinner.get(hotel);
+        if (won != null) for (Standing standing : new ArrayList<>(won))
+            if (challenge(standing, catalog, fx, hotel, snapshot, position)) changed.add(standing);
+        for (Map.Entry<ClientType, NavigableSet<Standing>> ofClientType : byNightlyPrice.entrySet()) {
+            Collection<Standing> candidates = candidates(ofClientType.getValue(), ofClientType.getKey(), snapshot, fx);
+            for (Standing standing : new ArrayList<>(candidates)) {
+                if (standing.winner == null || standing.winner == hotel) continue;
+                if (challenge(standing, catalog, fx, hotel, snapshot, position)) changed.add(standing);
+            }
+        }
+        return watchesOf(changed);
+    }
+
+    /**
+     * @param resolved the queries of the client type with a cheapest hotel
+     * @return the queries the hotel may be cheaper for: the ones whose price per night is not below its
+     * cheapest night, less one minor unit for the rounding of the conversion, or all of them if the hotel
+     * does not know its cheapest night or its currency cannot be compared with theirs
+     */
+    private static Collection<Standing> candidates(NavigableSet<Standing> resolved, ClientType clientType,
+                                                   Hotel snapshot, FxTable fx) {
+        Money minimum = snapshot.getMinimumNightlyPrice(clientType);
+        if (minimum == null || resolved.isEmpty()) return resolved;
+        Standing bound = new Standing(null, null, 1, Long.MIN_VALUE);
+        if (fx == null) {
+            if (minimum.getCurrency() != resolved.first().winnerPrice.getCurrency()) return resolved;
+            bound.winnerMinorUnits = minimum.getMinorUnits();
+        } else {
+            try {
+                bound.winnerMinorUnits = fx.toReference(minimum).getMinorUnits() - 1;
+            } catch (RuntimeException e) {
+                return resolved;
+            }
+        }
+        return resolved.tailSet(bound, true);
+    }
+
+    /**
+     * Evaluates every query again, as when the exchange rates change
+     * @return the watches whose cheapest hotel changed
+     */
+    List<PriceWatch> evaluateAll(Catalog catalog, FxTable fx) {
+        if (size == 0) return Collections.emptyList();
+        List<Standing> changed = new ArrayList<>();
+        for (Map<StayDates, Standing> ofClientType : standings.values())
+            for (Standing standing : ofClientType.values())
+                if (evaluate(standing, catalog, fx)) changed.add(standing);
+        return watchesOf(changed);
+    }
+
+    private static List<PriceWatch> watchesOf(List<Standing> standings) {
+        List<PriceWatch> watches = new ArrayList<>();
+        for (Standing standing : standings) watches.addAll(standing.watches);
+        return watches;
+    }
+
+    /**
+     * Prices the changed hotel against the cheapest one, with the same ordering as
+     * {@link HotelReservation#getCheapestHotel(String)}, and falls back to a full evaluation if needed
+     * @return whether the cheapest hotel changed
+     */
+    private boolean challenge(Standing standing, Catalog catalog, FxTable fx,
+                              Hotel hotel, Hotel snapshot, int position) {
+        Money price;
+        int comparison;
+        try {
+            price = price(snapshot, standing.clientType, standing.stay, fx);
+            comparison = Hotel.compare(price, snapshot.getRank(), standing.winnerPrice, standing.winnerRank);
+        } catch (RuntimeException e) {
+            return evaluate(standing, catalog, fx);
+        }
+        if (standing.winner == hotel) {
+            if (comparison > 0) return evaluate(standing, catalog, fx);
+            setWinnerPrice(standing, price);
+            standing.winnerRank = snapshot.getRank();
+            standing.winnerName = snapshot.getName();
+            return false;
+        }
+        if (comparison > 0 || comparison == 0 && position > catalog.indexOf(standing.winner)) return false;
+        win(standing, hotel, snapshot, price);
+        return true;
+    }
+
+    /**
+     * Prices the whole catalog for the query
+     * @return whether the cheapest hotel changed
+     */
+    private boolean evaluate(Standing standing, Catalog catalog, FxTable fx) {
+        Hotel previous = standing.winner;
+        List<Hotel> hotels = catalog.getSnapshots();
+        try {
+            int cheapest = -1;
+            Money cheapestPrice = null;
+            for (int i = 0; i < hotels.size(); i++) {
+                Hotel hotel = hotels.get(i);
+                Money price = price(hotel, standing.clientType, standing.stay, fx);
+                if (cheapest < 0
+                        || Hotel.compare(price, hotel.getRank(), cheapestPrice, hotels.get(cheapest).getRank()) < 0) {
+                    cheapest = i;
+                    cheapestPrice = price;
+                }
+            }
+            standing.error = null;
+            if (cheapestPrice == null) lose(standing, null);
+            else win(standing, catalog.getHotel(cheapest), hotels.get(cheapest), cheapestPrice);
+        } catch (RuntimeException e) {
+            lose(standing, e);
+        }
+        return standing.winner != previous;
+    }
+
+    private static Money price(Hotel snapshot, ClientType clientType, StayDates stay, FxTable fx) {
+        Money price = snapshot.getPrice(clientType, stay);
+        return fx == null || price == null ? price : fx.toReference(price);
+    }
+
+    private void win(Standing standing, Hotel hotel, Hotel snapshot, Money price) {
+        index(standing, hotel);
+        standing.winner = hotel;
+        setWinnerPrice(standing, price);
+        standing.winnerRank = snapshot.getRank();
+        standing.winnerName = snapshot.getName();
+    }
+
+    private void lose(Standing standing, RuntimeException error) {
+        index(standing, null);
+        standing.winner = null;
+        setWinnerPrice(standing, null);
+        standing.winnerName = null;
+        standing.error = error;
+        unresolved.add(standing);
+    }
+
+    /**
+     * Sets the price of the cheapest hotel, moving the query to its place in {@link #byNightlyPrice}
+     * @param price the price, or {@code null} to remove the query from the index
+     */
+    private void setWinnerPrice(Standing standing, Money price) {
+        NavigableSet<Standing> resolved = byNightlyPrice.computeIfAbsent(standing.clientType,
+                t -> new TreeSet<>(NIGHTLY_PRICE_ORDER));
+        if (standing.winnerPrice != null) resolved.remove(standing);
+        standing.winnerPrice = price;
+        if (price == null) return;
+        standing.winnerMinorUnits = price.getMinorUnits();
+        resolved.add(standing);
+    }
+
+    /**
+     * Compares the prices per night of the cheapest hotels exactly, as fractions: {@code a / n} against
+     * {@code b / m} as {@code a * m} against {@code b * n}, multiplied in 128 bits
+     */
+    private static int compareNightlyPrices(Standing a, Standing b) {
+        long left = a.winnerMinorUnits * b.nights, right = b.winnerMinorUnits * a.nights;
+        long leftHigh = Math.multiplyHigh(a.winnerMinorUnits, b.nights);
+        long rightHigh = Math.multiplyHigh(b.winnerMinorUnits, a.nights);
+        return leftHigh != rightHigh ? Long.compare(leftHigh, rightHigh) : Long.compareUnsigned(left, right);
+    }
+
+    /**
+     * Moves the query from the index entry of its cheapest hotel to the one of the new cheapest hotel
+     * @param winner the new cheapest hotel, or {@code null} to remove the query from the index
+     */
+    private void index(Standing standing, Hotel winner) {
+        if (standing.winner == winner) return;
+        if (standing.winner == null) {
+            unresolved.remove(standing);
+        } else {
+            Set<Standing> won = byWinner.get(standing.winner);
+            won.remove(standing);
+            if (won.isEmpty()) byWinner.remove(standing.winner);
+        }
+        if (winner != null) byWinner.computeIfAbsent(winner, h -> new LinkedHashSet<>()).add(standing);
+    }
+}
@@ -0,0 +1,213 @@
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Discounts and constraints a hotel applies on top of the prices of its schedules, declared as a list of
+ * {@link Rule}s: minimum stays, length-of-stay discount tiers, "stay N nights, pay M" promotions and
+ * discounts of a client type.
+ *
+ * The rules are compiled once into a few primitive arrays, so a stay is priced by one pass over them on
+ * its total in minor units, without creating any object. The rules apply in this order, each on the result
+ * of the previous one and rounded half to even to minor units:
+ * <ol>
+ *     <li>stays shorter than the longest minimum are not offered at all</li>
+ *     <li>the "stay N, pay M" promotion that frees the most nights takes off, prorated, the average price of a
+ *     night for each free one: {@code M} nights are paid for every full {@code N} nights of the stay</li>
+ *     <li>the length-of-stay tier with the most nights the stay reaches takes off its percentage</li>
+ *     <li>the discounts of the client type, added up, take off their percentage</li>
+ * </ol>
+ * Percentages are in basis points: {@code 1_000} is 10%.
+ */
+public final class PricingRules {
+    public static final PricingRules NONE = new PricingRules(List.of());
+    /**
+     * What {@link #apply(long, ClientType, int)} returns for a stay that is not offered
+     */
+    static final long NOT_OFFERED = Long.MIN_VALUE;
+    private static final int BASIS = 10_000;
+
+    private final List<Rule> rules;
+    private final int minimumNights;
+    /**
+     * Length in nights and free nights of each block of the "stay N, pay M" promotions
+     */
+    private final int[] blockNights;
+    private final int[] freeNights;
+    /**
+     * The length-of-stay discount of each stay length, in basis points; stays longer than the table
+     * take its last entry
+     */
+    private final int[] lengthOfStayDiscounts;
+    /**
+     * What is left to pay after the client type discounts, in basis points, indexed by {@link ClientType#ordinal()}
+     */
+    private final int[] clientTypeFactors;
+
+    /**
+     * @param rules the rules; discounts of the same client type add up, and the other rules of a kind
+     *              do not stack: only the best one for the stay applies
+     * @throws IllegalArgumentException if the client type discounts add up to more than 100%
+     */
+    public PricingRules(List<Rule> rules) {
+        this.rules = List.copyOf(rules);
+        int minimumNights = 0, promotions = 0, longestTier = 0;
+        for (Rule rule : this.rules) {
+            if (rule.kind == Kind.MINIMUM_NIGHTS) minimumNights = Math.max(minimumNights, rule.nights);
+            if (rule.kind == Kind.STAY_PAY) promotions++;
+            if (rule.kind == Kind.LENGTH_OF_STAY) longestTier = Math.max(longestTier, rule.nights);
+        }
+        this.minimumNights = minimumNights;
+        blockNights = new int[promotions];
+        freeNights = new int[promotions];
+        lengthOfStayDiscounts = new int[longestTier + 1];
+        int[] discounts = new int[ClientType.count()];
+        int promotion = 0;
+        for (Rule rule : this.rules) {
+            switch (rule.kind) {
+                case STAY_PAY:
+                    blockNights[promotion] = rule.nights;
+                    freeNights[promotion++] = rule.nights - rule.paidNights;
+                    break;
+                case LENGTH_OF_STAY:
+                    for (int nights = rule.nights; nights <= longestTier; nights++) {
+                        lengthOfStayDiscounts[nights] = Math.max(lengthOfStayDiscounts[nights], rule.basisPoints);
+                    }
+                    break;
+                case CLIENT_TYPE:
+                    discounts[rule.clientType.ordinal()] += rule.basisPoints;
+                    break;
+                default:
+                    break;
+            }
+        }
+        clientTypeFactors = new int[ClientType.count()];
+        for (int t = 0; t < discounts.length; t++) {
+            if (discounts[t] > BASIS)
+                throw new IllegalArgumentException("Discounts of " + ClientType.of(t).getLabel() + " exceed 100%");
+            clientTypeFactors[t] = BASIS - discounts[t];
+        }
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * @return whether the rules offer a stay of that many nights at all
+     */
+    public boolean isOffered(int nights) {
+        return nights >= minimumNights;
+    }
+
+    /**
+     * @param price the price of the stay before the rules
+     * @param nights how many nights the stay has
+     * @return the price after the rules, or {@code null} if they do not offer the stay
+     */
+    public Money apply(Money price, ClientType clientType, int nights) {
+        long minorUnits = apply(price.getMinorUnits(), clientType, nights);
+        return minorUnits == NOT_OFFERED ? null : Money.ofMinorUnits(minorUnits, price.getCurrency());
+    }
+
+    /**
+     * @param minorUnits the price of the stay before the rules, in minor units
+     * @return the price after the rules, in minor units of the same currency, or {@link #NOT_OFFERED}
+     */
+    long apply(long minorUnits, ClientType clientType, int nights) {
+        if (nights < minimumNights) return NOT_OFFERED;
+        int free = 0;
+        for (int i = 0; i < blockNights.length; i++) free = Math.max(free, nights / blockNights[i] * freeNights[i]);
+        long price = scale(minorUnits, nights - free, nights);
+        price = scale(price, BASIS - lengthOfStayDiscounts[Math.min(nights, lengthOfStayDiscounts.length - 1)], BASIS);
+        return scale(price, clientTypeFactors[clientType.ordinal()], BASIS);
+    }
+
+    /**
+     * Computes {@code amount * numerator / denominator} as {@code q * numerator + r * numerator / denominator}
+     * with {@code amount = q * denominator + r}, so that {@code r * numerator} cannot overflow
+     * @return the result, rounded half to even
+     */
+    private static long scale(long amount, long numerator, long denominator) {
+        if (numerator == denominator) return amount;
+        long quotient = Math.floorDiv(amount, denominator);
+        long product = Math.floorMod(amount, denominator) * numerator;
+        long result = quotient * numerator + product / denominator;
+        long remainder = product % denominator, half = denominator - remainder;
+        if (remainder > half || remainder == half && (result & 1) != 0) result++;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "PricingRules" + Arrays.toString(rules.toArray());
+    }
+
+    enum Kind { MINIMUM_NIGHTS, LENGTH_OF_STAY, STAY_PAY, CLIENT_TYPE }
+
+    /**
+     * A discount or constraint of the price of a stay
+     */
+    public static final class Rule {
+        private final Kind kind;
+        private final int nights;
+        private final int paidNights;
+        private final int basisPoints;
+        private final ClientType clientType;
+
+        private Rule(Kind kind, int nights, int paidNights, int basisPoints, ClientType clientType) {
+            if (nights < 1) throw new IllegalArgumentException("Nights must be positive");
+            if (basisPoints < 0 || basisPoints > BASIS)
+                throw new IllegalArgumentException("Discount must be between 0 and 10000 basis points");
+            this.kind = kind;
+            this.nights = nights;
+            this.paidNights = paidNights;
+            this.basisPoints = basisPoints;
+            this.clientType = clientType;
+        }
+
+        /**
+         * Stays shorter than the given nights are not offered
+         */
+        public static Rule minimumNights(int nights) {
+            return new Rule(Kind.MINIMUM_NIGHTS, nights, 0, 0, null);
+        }
+
+        /**
+         * A discount of stays of at least the given nights, e.g. 10% from 7 nights on
+         */
+        public static Rule lengthOfStay(int nights, int basisPoints) {
+            return new Rule(Kind.LENGTH_OF_STAY, nights, 0, basisPoints, null);
+        }
+
+        /**
+         * Only {@code paidNights} of every full {@code nights} of the stay are paid, e.g. stay 4, pay 3
+         */
+        public static Rule stayPay(int nights, int paidNights) {
+            if (paidNights < 0 || paidNights > nights)
+                throw new IllegalArgumentException("Paid nights must be between 0 and the nights of the block");
+            return new Rule(Kind.STAY_PAY, nights, paidNights, 0, null);
+        }
+
+        /**
+         * A discount of every stay of a client type
+         */
+        public static Rule clientTypeDiscount(ClientType clientType, int basisPoints) {
+            if (clientType == null) throw new NullPointerException("Client type must not be null");
+            return new Rule(Kind.CLIENT_TYPE, 1, 0, basisPoints, clientType);
+        }
+
+        @Override
+        public String toString() {
+            switch (kind) {
+                case MINIMUM_NIGHTS: return "minimum " + nights + " nights";
+                case LENGTH_OF_STAY: return basisPoints + "bp from " + nights + " nights";
+                case STAY_PAY: return "stay " + nights + " pay " + paidNights;
+                default: return basisPoints + "bp for " + clientType.getLabel();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of cheapest-hotel answers, keyed on the canonical signature of a query rather than its text.
+ *
+ * When every schedule of a catalog only depends on the day of the week, the answer to a query only depends
+ * on its client type and its {@link DayOfWeekHistogram}, or just its weekday and weekend night counts
+ * when they are all {@link WeekendPriceSchedule}s, and on the exchange rates it was compared with.
+ * Entries belong to a catalog version and are dropped as soon as a newer version is seen. The cache is
+ * split in independently locked segments, each evicting its least recently used entry when full.
+ */
+final class QueryCache {
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity how many answers to keep at most, at least one per segment
+     */
+    QueryCache(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive");
+        for (int i = 0; i < SEGMENTS; i++) segments[i] = new Segment(Math.max(1, capacity / SEGMENTS));
+    }
+
+    /**
+     * @return the cached answer for the key in the given catalog version, or {@code null}
+     */
+    String get(long version, Key key) {
+        String hotel = segmentOf(key).get(version, key);
+        (hotel == null ? misses : hits).increment();
+        return hotel;
+    }
+
+    void put(long version, Key key, String hotel) {
+        segmentOf(key).put(version, key, hotel);
+    }
+
+    private Segment segmentOf(Key key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ hash >>> 16) & SEGMENTS - 1];
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    private static final class Segment {
+        private final Map<Key, String> entries;
+        private long version = Long.MIN_VALUE;
+
+        Segment(int capacity) {
+            entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized String get(long version, Key key) {
+            return adopt(version) ? entries.get(key) : null;
+        }
+
+        synchronized void put(long version, Key key, String hotel) {
+            if (adopt(version)) entries.put(key, hotel);
+        }
+
+        /**
+         * Moves the segment to a newer catalog version, dropping its entries
+         * @return false if the version is older than the segment's, whose entries must then be left alone
+         */
+        private boolean adopt(long version) {
+            if (version < this.version) return false;
+            if (version > this.version) {
+                entries.clear();
+                this.version = version;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Canonical signature of a query: its client type, night counts and exchange rate table.
+     * Tables are compared by identity, so answers compared with a replaced table are never found again.
+     */
+    static final class Key {
+        private final ClientType clientType;
+        private final int[] counts;
+        private final FxTable fx;
+
+        private Key(ClientType clientType, int[] counts, FxTable fx) {
+            this.clientType = clientType;
+            this.counts = counts;
+            this.fx = fx;
+        }
+
+        /**
+         * @return the signature of the parsed query for the catalog, or {@code null} if answers in the
+         * catalog do not only depend on the days of the week
+         */
+        static Key of(Catalog catalog, FxTable fx, QueryParser query) {
+            if (!catalog.isDayOfWeekPriced()) return null;
+            DayOfWeekHistogram histogram = query.histogram();
+            int[] counts = catalog.isWeekendPriced()
+                    ? new int[]{ histogram.getWeekdays(), histogram.getWeekends() }
+                    : histogram.toArray();
+            return new Key(query.getClientType(), counts, fx);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return clientType == key.clientType && fx == key.fx && Arrays.equals(counts, key.counts);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(counts) + clientType.ordinal();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Thrown when a query does not follow the grammar of {@link QueryParser}.
+ * Still an {@link IllegalStateException}, as malformed input always was, with the cause of the rejection
+ * and where in the input it was found.
+ */
+public class QueryFormatException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Why a query was rejected
+     */
+    public enum Reason {
+        /**
+         * The query does not start with a known client type followed by {@code :}
+         */
+        CLIENT_TYPE,
+        /**
+         * A date is not written as {@code ddMMMyyyy(EEE)}
+         */
+        DATE_FORMAT,
+        /**
+         * A date is well written but does not exist, such as an unknown month or a 30th of February
+         */
+        INVALID_DATE,
+        /**
+         * Dates are not separated by commas
+         */
+        SEPARATOR
+    }
+
+    private final Reason reason;
+    private final int position;
+
+    public QueryFormatException(String message, Reason reason, int position) {
+        super(message + " at position " + position);
+        this.reason = reason;
+        this.position = position;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * @return the position in the input where the query stopped following the grammar
+     */
+    public int getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,211 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Single-pass parser for the query grammar {@code <ClientType>: ddMMMyyyy(EEE), ddMMMyyyy(EEE), ...},
+ * where the client type is one of the {@link ClientType#getLabel() labels} (e.g. {@code Regular} or {@code Rewards}).
+ *
+ * Dates are decoded straight from the characters into epoch days (the same numbering
+ * as {@link LocalDate#toEpochDay()}), without regular expressions, formatters or
+ * intermediate strings. Malformed input is rejected with a {@link QueryFormatException}.
+ *
+ * An instance keeps a reusable buffer for the decoded days, so it is not thread-safe;
+ * the buffer is the only state kept between calls to {@link #parse(CharSequence)}.
+ */
+public final class QueryParser {
+    /**
+     * The English month abbreviations, capitalized and packed as {@code c0 << 16 | c1 << 8 | c2}
+     */
+    private static final int[] MONTH_KEYS = {
+            key("Jan"), key("Feb"), key("Mar"), key("Apr"), key("May"), key("Jun"),
+            key("Jul"), key("Aug"), key("Sep"), key("Oct"), key("Nov"), key("Dec")
+    };
+    private static final int DAYS_0000_TO_1970 = 719528;
+
+    private ClientType clientType;
+    private int[] days = new int[8];
+    private int size;
+
+    private static int key(String month) {
+        return month.charAt(0) << 16 | month.charAt(1) << 8 | month.charAt(2);
+    }
+
+    /**
+     * Parses a query, replacing the result of the previous call.
+     * @param input the query, not {@code null}
+     * @throws QueryFormatException if the input does not follow the grammar or contains an invalid date
+     */
+    public void parse(CharSequence input) throws IllegalStateException {
+        int end = input.length();
+        int colon = 0;
+        while (colon < end && input.charAt(colon) != ':') colon++;
+        clientType = colon < end ? ClientType.ofLabel(input, 0, colon) : null;
+        if (clientType == null) fail("Expected <ClientType>:", QueryFormatException.Reason.CLIENT_TYPE, 0);
+        parseDates(input, colon + 1, end);
+    }
+
+    /**
+     * Parses only the dates of a query, without the client type, replacing the result of the previous call.
+     * {@link #getClientType()} is then {@code null}.
+     * @param input the dates, as {@code ddMMMyyyy(EEE), ddMMMyyyy(EEE), ...}, not {@code null}
+     * @throws QueryFormatException if the input does not follow the grammar or contains an invalid date
+     */
+    public void parseDates(CharSequence input) throws IllegalStateException {
+        clientType = null;
+        parseDates(input, 0, input.length());
+    }
+
+    private void parseDates(CharSequence input, int i, int end) {
+        size = 0;
+        do {
+            i = skipSpaces(input, i, end);
+            i = parseDate(input, i, end);
+            i = skipSpaces(input, i, end);
+            if (i == end) return;
+            if (input.charAt(i) != ',') fail("Expected ','", QueryFormatException.Reason.SEPARATOR, i);
+            i++;
+        } while (true);
+    }
+
+    private static int skipSpaces(CharSequence input, int i, int end) {
+        while (i < end && Character.isWhitespace(input.charAt(i))) i++;
+        return i;
+    }
+
+    /**
+     * Parses a single {@code ddMMMyyyy(EEE)} date and appends its epoch day to the buffer. As with the
+     * {@code MMM} pattern of {@link java.time.format.DateTimeFormatter}, the month must be capitalized
+     * ({@code Mar}); the day name is only checked to be 3 or 4 lower-case letters, as it is redundant with
+     * the date itself.
+     * @return the position right after the closing parenthesis
+     */
+    private int parseDate(CharSequence input, int i, int end) {
+        if (end - i < 12) fail("Expected date as ddMMMyyyy(EEE)", QueryFormatException.Reason.DATE_FORMAT, i);
+        int day = digits(input, i, 2);
+        int month = month(input, i + 2);
+        int year = digits(input, i + 5, 4);
+        if (day < 1 || day > lengthOfMonth(month, year))
+            fail("Invalid day of month", QueryFormatException.Reason.INVALID_DATE, i);
+        i += 9;
+        if (input.charAt(i++) != '(') fail("Expected '('", QueryFormatException.Reason.DATE_FORMAT, i - 1);
+        int start = i;
+        while (i < end && i - start < 4 && isLowerCase(input.charAt(i))) i++;
+        if (i - start < 3 || i == end || input.charAt(i) != ')')
+            fail("Expected day of week as (EEE)", QueryFormatException.Reason.DATE_FORMAT, start);
+        append(toEpochDay(year, month, day));
+        return i + 1;
+    }
+
+    private static int digits(CharSequence input, int i, int count) {
+        int value = 0;
+        for (int j = i; j < i + count; j++) {
+            int digit = input.charAt(j) - '0';
+            if (digit < 0 || digit > 9) fail("Expected digit", QueryFormatException.Reason.DATE_FORMAT, j);
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static boolean isLowerCase(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    private static int month(CharSequence input, int i) {
+        int key = 0;
+        for (int j = i; j < i + 3; j++) {
+            char c = input.charAt(j);
+            if (j == i ? c < 'A' || c > 'Z' : !isLowerCase(c))
+                fail("Expected month as MMM", QueryFormatException.Reason.DATE_FORMAT, i);
+            key = key << 8 | c;
+        }
+        for (int m = 0; m < MONTH_KEYS.length; m++)
+            if (MONTH_KEYS[m] == key) return m + 1;
+        return fail("Unknown month", QueryFormatException.Reason.INVALID_DATE, i);
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int month, int year) {
+        switch (month) {
+            case 2: return isLeapYear(year) ? 29 : 28;
+            case 4: case 6: case 9: case 11: return 30;
+            default: return 31;
+        }
+    }
+
+    /**
+     * Same arithmetic as {@link LocalDate#toEpochDay()}, restricted to the non-negative years the grammar allows.
+     */
+    private static int toEpochDay(int year, int month, int day) {
+        int total = 365 * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12 + day - 1;
+        if (month > 2) total -= isLeapYear(year) ? 1 : 2;
+        return total - DAYS_0000_TO_1970;
+    }
+
+    private void append(int epochDay) {
+        if (size == days.length) days = Arrays.copyOf(days, size * 2);
+        days[size++] = epochDay;
+    }
+
+    private static int fail(String message, QueryFormatException.Reason reason, int position) {
+        throw new QueryFormatException(message, reason, position);
+    }
+
+    /**
+     * @return the client type of the last parsed query, {@code null} if only dates were parsed
+     */
+    public ClientType getClientType() {
+        return clientType;
+    }
+
+    /**
+     * @return how many dates the last parsed query has
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index the position of the date in the query
+     * @return the date at the position, as an epoch day
+     */
+    public int getEpochDay(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException(index);
+        return days[index];
+    }
+
+    /**
+     * @return a copy of the dates of the last parsed query, as epoch days
+     */
+    public int[] toEpochDays() {
+        return Arrays.copyOf(days, size);
+    }
+
+    /**
+     * @return the day of week histogram of the dates of the last parsed query
+     */
+    public DayOfWeekHistogram histogram() {
+        return DayOfWeekHistogram.ofEpochDays(days, size);
+    }
+
+    /**
+     * @return the dates of the last parsed query, as a stay priced without creating any date
+     */
+    public StayDates toStayDates() {
+        return StayDates.ofEpochDays(days, size);
+    }
+
+    /**
+     * @return the dates of the last parsed query
+     */
+    public List<LocalDate> toDates() {
+        List<LocalDate> dates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) dates.add(LocalDate.ofEpochDay(days[i]));
+        return dates;
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Outcome of a single query in a batch: either the name of the cheapest hotel
+ * or the error that made the query fail.
+ */
+public final class QueryResult {
+    private final String hotelName;
+    private final RuntimeException error;
+
+    private QueryResult(String hotelName, RuntimeException error) {
+        this.hotelName = hotelName;
+        this.error = error;
+    }
+
+    public static QueryResult of(String hotelName) {
+        return new QueryResult(hotelName, null);
+    }
+
+    public static QueryResult failed(RuntimeException error) {
+        if (error == null) throw new NullPointerException("Error must not be null");
+        return new QueryResult(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * @return the name of the cheapest hotel, or {@code null} if the query failed
+     */
+    public String getHotelName() {
+        return hotelName;
+    }
+
+    /**
+     * @return the reason the query failed (usually an {@link IllegalStateException} for malformed input),
+     * or {@code null} if it succeeded
+     */
+    public RuntimeException getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? hotelName : "error: " + error.getMessage();
+    }
+}
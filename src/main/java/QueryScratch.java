@@ -0,0 +1,17 @@
+/**
+ * Per-thread working state of a query: the parser with its date buffer and the price total of each hotel.
+ * Reused across queries to avoid allocating them every time.
+ */
+final class QueryScratch {
+    final QueryParser parser = new QueryParser();
+    private Money[] totals = new Money[0];
+
+    /**
+     * @param hotels how many hotels are being priced
+     * @return a buffer with room for the total of each hotel
+     */
+    Money[] totals(int hotels) {
+        if (totals.length < hotels) totals = new Money[hotels];
+        return totals;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * The price of a hotel for a query, as returned by {@link HotelReservation#getRankedQuotes(String, int)}.
+ *
+ * Quotes are ordered the way {@link Hotel#comparePrice} orders hotels: cheapest first and, on equal
+ * prices, highest rank first; quotes still tied keep the order of their hotels in the catalog.
+ * Prices of different currencies are compared in the reference currency of the exchange rates of the query.
+ */
+public final class Quote implements Comparable<Quote> {
+    private final String hotelName;
+    private final int rank;
+    private final Money price;
+    /**
+     * The price converted for comparison, the same as {@link #price} without exchange rates
+     */
+    private final Money referencePrice;
+    /**
+     * Position of the hotel in the catalog, the last tie-break
+     */
+    private final int order;
+
+    Quote(String hotelName, int rank, Money price, Money referencePrice, int order) {
+        this.hotelName = hotelName;
+        this.rank = rank;
+        this.price = price;
+        this.referencePrice = referencePrice;
+        this.order = order;
+    }
+
+    public String getHotelName() {
+        return hotelName;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * @return the price, in the currency of the hotel
+     */
+    public Money getPrice() {
+        return price;
+    }
+
+    Money getReferencePrice() {
+        return referencePrice;
+    }
+
+    /**
+     * @return the position of the hotel in the catalog
+     */
+    int getOrder() {
+        return order;
+    }
+
+    /**
+     * @return the same quote for the hotel at another position, as when a shard places it in the whole catalog
+     */
+    Quote withOrder(int order) {
+        return new Quote(hotelName, rank, price, referencePrice, order);
+    }
+
+    @Override
+    public int compareTo(Quote o) {
+        int comparison = Hotel.compare(referencePrice, rank, o.referencePrice, o.rank);
+        return comparison == 0 ? Integer.compare(order, o.order) : comparison;
+    }
+
+    @Override
+    public String toString() {
+        return hotelName + " " + price;
+    }
+}
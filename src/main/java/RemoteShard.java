@@ -0,0 +1,91 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A {@link Shard} answered by a {@link ShardWorker} of another process on the same host.
+ *
+ * Each query takes an idle connection to the worker, or opens a new one, and returns it once answered,
+ * so queries from many threads run at the same time without opening a connection each.
+ */
+public final class RemoteShard implements Shard, AutoCloseable {
+    private final int port;
+    private final ConcurrentLinkedQueue<Connection> idle = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed;
+
+    /**
+     * @param port the port of the worker on the loopback interface
+     */
+    public RemoteShard(int port) {
+        this.port = port;
+    }
+
+    private static final class Connection {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final BufferedWriter out;
+
+        Connection(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        }
+
+        String request(String query) throws IOException {
+            out.write(query);
+            out.write('\n');
+            out.flush();
+            String response = in.readLine();
+            if (response == null) throw new IOException("Shard worker closed the connection");
+            return response;
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // nothing left to release
+            }
+        }
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    @Override
+    public Quote getCheapest(String query) {
+        if (query.indexOf('\n') >= 0 || query.indexOf('\r') >= 0)
+            throw new IllegalStateException("Query must be a single line");
+        if (closed) throw new IllegalStateException("Shard is closed");
+        Connection connection = idle.poll();
+        String response;
+        try {
+            if (connection == null) connection = new Connection(port);
+            response = connection.request(query);
+        } catch (IOException e) {
+            if (connection != null) connection.close();
+            throw new UncheckedIOException("Shard worker on port " + port + " failed", e);
+        }
+        idle.add(connection);
+        if (closed) close();
+        return ShardWorker.parse(response);
+    }
+
+    /**
+     * Closes the idle connections; the ones in use are closed as their queries finish
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Connection connection = idle.poll(); connection != null; connection = idle.poll()) connection.close();
+    }
+}
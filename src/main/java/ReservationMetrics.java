@@ -0,0 +1,166 @@
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms of the queries of a {@link HotelReservation}, published through JMX.
+ *
+ * Recording only touches striped counters, so queries answered at once on many threads do not contend;
+ * the counts are only summed up when read.
+ */
+public final class ReservationMetrics implements ReservationMetricsMXBean {
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final HotelReservation reservation;
+    private final ObjectName name;
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder[] byClientType = new LongAdder[ClientType.count()];
+    private final LongAdder[] byReason = new LongAdder[QueryFormatException.Reason.values().length];
+    /**
+     * Errors other than malformed queries, by exception name
+     */
+    private final Map<String, LongAdder> byException = new ConcurrentHashMap<>();
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+    private final LatencyHistogram priceLatency = new LatencyHistogram();
+
+    ReservationMetrics(HotelReservation reservation) {
+        this.reservation = reservation;
+        for (int i = 0; i < byClientType.length; i++) byClientType[i] = new LongAdder();
+        for (int i = 0; i < byReason.length; i++) byReason[i] = new LongAdder();
+        try {
+            name = new ObjectName("HotelReservation:type=ReservationMetrics,name=reservation-" + INSTANCES.incrementAndGet());
+        } catch (JMException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the name the metrics are registered under in the platform MBean server
+     */
+    public ObjectName getObjectName() {
+        return name;
+    }
+
+    void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register " + name, e);
+        }
+    }
+
+    void unregister() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not unregister " + name, e);
+        }
+    }
+
+    void parsed(ClientType clientType, long nanos) {
+        queries.increment();
+        byClientType[clientType.ordinal()].increment();
+        parseLatency.record(nanos);
+    }
+
+    void parseFailed(RuntimeException error) {
+        queries.increment();
+        failed(error);
+    }
+
+    void priced(long nanos) {
+        priceLatency.record(nanos);
+    }
+
+    void failed(RuntimeException error) {
+        if (error instanceof QueryFormatException) {
+            byReason[((QueryFormatException) error).getReason().ordinal()].increment();
+        } else {
+            byException.computeIfAbsent(error.getClass().getSimpleName(), cause -> new LongAdder()).increment();
+        }
+    }
+
+    @Override
+    public long getQueryCount() {
+        return queries.sum();
+    }
+
+    @Override
+    public Map<String, Long> getQueriesByClientType() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (int i = 0; i < byClientType.length; i++) counts.put(ClientType.of(i).getLabel(), byClientType[i].sum());
+        return counts;
+    }
+
+    @Override
+    public long getErrorCount() {
+        long count = 0;
+        for (LongAdder reason : byReason) count += reason.sum();
+        for (LongAdder exception : byException.values()) count += exception.sum();
+        return count;
+    }
+
+    @Override
+    public Map<String, Long> getErrorsByCause() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (QueryFormatException.Reason reason : QueryFormatException.Reason.values())
+            counts.put(reason.name(), byReason[reason.ordinal()].sum());
+        byException.forEach((cause, count) -> counts.put(cause, count.sum()));
+        return counts;
+    }
+
+    @Override
+    public long[] getParseLatencyHistogram() {
+        return parseLatency.getCounts();
+    }
+
+    @Override
+    public long[] getPriceLatencyHistogram() {
+        return priceLatency.getCounts();
+    }
+
+    @Override
+    public long getParseLatencyMeanNanos() {
+        return parseLatency.getMeanNanos();
+    }
+
+    @Override
+    public long getPriceLatencyMeanNanos() {
+        return priceLatency.getMeanNanos();
+    }
+
+    @Override
+    public long getParseLatencyP99Nanos() {
+        return parseLatency.getPercentileNanos(0.99);
+    }
+
+    @Override
+    public long getPriceLatencyP99Nanos() {
+        return priceLatency.getPercentileNanos(0.99);
+    }
+
+    @Override
+    public int getCatalogSize() {
+        return reservation.getHotels().size();
+    }
+
+    @Override
+    public long getCatalogVersion() {
+        return reservation.getCatalogVersion();
+    }
+
+    @Override
+    public void reset() {
+        queries.reset();
+        for (LongAdder count : byClientType) count.reset();
+        for (LongAdder count : byReason) count.reset();
+        byException.clear();
+        parseLatency.reset();
+        priceLatency.reset();
+    }
+}
@@ -0,0 +1,55 @@
+import java.util.Map;
+
+/**
+ * Management interface of {@link ReservationMetrics}, registered with the platform MBean server
+ * by {@link HotelReservation#enableMetrics()}.
+ */
+public interface ReservationMetricsMXBean {
+    /**
+     * @return how many queries were answered, successfully or not
+     */
+    long getQueryCount();
+
+    /**
+     * @return how many queries were parsed for each client type label
+     */
+    Map<String, Long> getQueriesByClientType();
+
+    long getErrorCount();
+
+    /**
+     * @return how many queries failed for each cause: the {@link QueryFormatException.Reason} of malformed
+     * queries, or the simple name of any other exception
+     */
+    Map<String, Long> getErrorsByCause();
+
+    /**
+     * @return the count of parse durations in each power-of-two bucket of nanoseconds
+     */
+    long[] getParseLatencyHistogram();
+
+    /**
+     * @return the count of price durations, cache lookup included, in each power-of-two bucket of nanoseconds
+     */
+    long[] getPriceLatencyHistogram();
+
+    long getParseLatencyMeanNanos();
+
+    long getPriceLatencyMeanNanos();
+
+    /**
+     * @return the upper bound of the bucket holding the 99th percentile of parse durations
+     */
+    long getParseLatencyP99Nanos();
+
+    /**
+     * @return the upper bound of the bucket holding the 99th percentile of price durations
+     */
+    long getPriceLatencyP99Nanos();
+
+    int getCatalogSize();
+
+    long getCatalogVersion();
+
+    void reset();
+}
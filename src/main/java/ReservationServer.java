@@ -0,0 +1,170 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+
+/**
+ * Answers queries over HTTP on the loopback interface, sharing one {@link HotelReservation} between all requests.
+ *
+ * Requests are {@code POST}s whose body holds one query per line, in the format of
+ * {@link HotelReservation#getCheapestHotel(String)}; the response has one line per query, in the same order:
+ * <ul>
+ *     <li>{@code /cheapest} answers the name of the cheapest hotel</li>
+ *     <li>{@code /quotes?k=n} answers the n cheapest quotes, separated by tabs, 3 if {@code k} is not given</li>
+ * </ul>
+ * A query that fails is answered with {@code ERROR} and the message of its error, without affecting the others.
+ * Bodies larger than the limit of the server are refused with {@code 413}, without reading them further.
+ * Connections are kept alive between requests, and each request is handled on its own virtual thread
+ * when the runtime has them, or on a pooled thread otherwise.
+ */
+public final class ReservationServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_MAX_BODY_BYTES = 1 << 20;
+    private static final int DEFAULT_QUOTES = 3;
+
+    private final HotelReservation reservation;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int maxBodyBytes;
+
+    /**
+     * @param reservation the reservation answering the queries
+     * @param port the port to listen on, or {@code 0} for any free port
+     */
+    public ReservationServer(HotelReservation reservation, int port) throws IOException {
+        this(reservation, port, DEFAULT_MAX_BODY_BYTES);
+    }
+
+    /**
+     * @param maxBodyBytes the largest request body accepted, in bytes, below {@link Integer#MAX_VALUE}
+     */
+    public ReservationServer(HotelReservation reservation, int port, int maxBodyBytes) throws IOException {
+        if (maxBodyBytes < 1 || maxBodyBytes == Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Body limit must be positive and below Integer.MAX_VALUE");
+        this.reservation = reservation;
+        this.maxBodyBytes = maxBodyBytes;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = ThreadPerTaskExecutors.newExecutor("reservation-server");
+        server.setExecutor(executor);
+        server.createContext("/cheapest", exchange -> handle(exchange, false));
+        server.createContext("/quotes", exchange -> handle(exchange, true));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops accepting requests, waiting for none of the ones in progress
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange, boolean quotes) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            int k = DEFAULT_QUOTES;
+            if (quotes) {
+                try {
+                    k = quoteCount(exchange.getRequestURI().getRawQuery());
+                } catch (IllegalArgumentException e) {
+                    respond(exchange, 400, e.getMessage() + "\n");
+                    return;
+                }
+            }
+            List<String> queries = readLines(exchange);
+            if (queries == null) {
+                exchange.getResponseHeaders().set("Connection", "close");
+                respond(exchange, 413, "Body exceeds " + maxBodyBytes + " bytes\n");
+                return;
+            }
+            respond(exchange, 200, quotes ? quote(queries, k) : cheapest(queries));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * @return the value of the {@code k} parameter of the query string, or the default
+     */
+    private static int quoteCount(String query) {
+        if (query == null) return DEFAULT_QUOTES;
+        for (String parameter : query.split("&")) {
+            if (!parameter.startsWith("k=")) continue;
+            int k;
+            try {
+                k = Integer.parseInt(parameter.substring(2));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("k must be a number");
+            }
+            if (k < 1) throw new IllegalArgumentException("k must be positive");
+            return k;
+        }
+        return DEFAULT_QUOTES;
+    }
+
+    /**
+     * @return the non-blank lines of the body, or {@code null} if it is larger than the limit, reading at most
+     * one byte past it
+     */
+    private List<String> readLines(HttpExchange exchange) throws IOException {
+        byte[] body = exchange.getRequestBody().readNBytes(maxBodyBytes + 1);
+        if (body.length > maxBodyBytes) return null;
+        return new String(body, StandardCharsets.UTF_8).lines()
+                .filter(line -> !line.isBlank())
+                .collect(Collectors.toList());
+    }
+
+    private String cheapest(List<String> queries) {
+        StringBuilder response = new StringBuilder();
+        for (QueryResult result : reservation.getCheapestHotels(queries)) {
+            response.append(result.isSuccess() ? result.getHotelName() : error(result.getError())).append('\n');
+        }
+        return response.toString();
+    }
+
+    private String quote(List<String> queries, int k) {
+        StringBuilder response = new StringBuilder();
+        for (String query : queries) {
+            try {
+                response.append(reservation.getRankedQuotes(query, k).stream()
+                        .map(Quote::toString).collect(Collectors.joining("\t")));
+            } catch (RuntimeException e) {
+                response.append(error(e));
+            }
+            response.append('\n');
+        }
+        return response.toString();
+    }
+
+    private static String error(RuntimeException error) {
+        return "ERROR " + error.getMessage();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
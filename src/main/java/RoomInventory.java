@@ -0,0 +1,141 @@
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Rooms left of each hotel on each night of a horizon of dates.
+ *
+ * Each hotel has its own array of atomic counters, one per night, so bookings of different hotels or nights
+ * never contend, and there is no lock at all: a booking takes a room of each night of the stay by compare-and-set
+ * and, if a night turns out to be sold out, gives back the rooms it already took, so a stay is booked
+ * entirely or not at all. Hotels without inventory and nights outside the horizon have no rooms.
+ */
+public final class RoomInventory {
+    private final long start;
+    private final int days;
+    private final Map<Hotel, AtomicIntegerArray> rooms = new ConcurrentHashMap<>();
+
+    /**
+     * @param from the first night of the horizon
+     * @param to the last night of the horizon, inclusive
+     */
+    public RoomInventory(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) throw new IllegalArgumentException("Horizon must not end before it starts");
+        this.start = from.toEpochDay();
+        this.days = Math.toIntExact(to.toEpochDay() - start + 1);
+    }
+
+    /**
+     * Sets how many rooms the hotel has left on every night of the horizon
+     */
+    public void setRooms(Hotel hotel, int count) {
+        if (count < 0) throw new IllegalArgumentException("Rooms must not be negative");
+        AtomicIntegerArray nights = nightsOf(hotel);
+        for (int i = 0; i < days; i++) nights.set(i, count);
+    }
+
+    /**
+     * Sets how many rooms the hotel has left on a night of the horizon
+     */
+    public void setRooms(Hotel hotel, LocalDate night, int count) {
+        if (count < 0) throw new IllegalArgumentException("Rooms must not be negative");
+        int offset = offset(night.toEpochDay());
+        if (offset < 0) throw new IllegalArgumentException("Night is outside the horizon: " + night);
+        nightsOf(hotel).set(offset, count);
+    }
+
+    private AtomicIntegerArray nightsOf(Hotel hotel) {
+        return rooms.computeIfAbsent(hotel, h -> new AtomicIntegerArray(days));
+    }
+
+    /**
+     * @return the position of the night in the horizon, or -1 if it is outside
+     */
+    private int offset(long epochDay) {
+        long offset = epochDay - start;
+        return offset < 0 || offset >= days ? -1 : (int) offset;
+    }
+
+    /**
+     * @return how many rooms the hotel has left on the night
+     */
+    public int getRooms(Hotel hotel, LocalDate night) {
+        AtomicIntegerArray nights = rooms.get(hotel);
+        int offset = offset(night.toEpochDay());
+        return nights == null || offset < 0 ? 0 : nights.get(offset);
+    }
+
+    /**
+     * @return whether the hotel has a room left on every night of the stay, or as many as the times the
+     * stay repeats the night
+     */
+    boolean isAvailable(Hotel hotel, StayDates stay) {
+        AtomicIntegerArray nights = rooms.get(hotel);
+        if (nights == null) return false;
+        for (int i = 0; i < stay.size(); ) {
+            int end = sameNightEnd(stay, i);
+            int offset = offset(stay.getEpochDay(i));
+            if (offset < 0 || nights.get(offset) < end - i) return false;
+            i = end;
+        }
+        return true;
+    }
+
+    /**
+     * Books a room of the hotel on every night of the stay, or none if a night is sold out.
+     * A night given more than once takes that many rooms.
+     * @return whether the stay was booked
+     */
+    public boolean book(Hotel hotel, List<LocalDate> nights) {
+        if (nights.isEmpty()) return rooms.containsKey(hotel);
+        return book(hotel, StayDates.of(nights));
+    }
+
+    boolean book(Hotel hotel, StayDates stay) {
+        AtomicIntegerArray nights = rooms.get(hotel);
+        if (nights == null) return false;
+        for (int i = 0; i < stay.size(); ) {
+            int end = sameNightEnd(stay, i);
+            int offset = offset(stay.getEpochDay(i));
+            if (offset < 0 || !take(nights, offset, end - i)) {
+                for (int j = 0; j < i; j++) nights.incrementAndGet(offset(stay.getEpochDay(j)));
+                return false;
+            }
+            i = end;
+        }
+        return true;
+    }
+
+    /**
+     * @return the position after the last repetition of the night at {@code from}, the stay being sorted
+     */
+    private static int sameNightEnd(StayDates stay, int from) {
+        int end = from + 1;
+        while (end < stay.size() && stay.getEpochDay(end) == stay.getEpochDay(from)) end++;
+        return end;
+    }
+
+    private static boolean take(AtomicIntegerArray nights, int offset, int count) {
+        int left;
+        do {
+            left = nights.get(offset);
+            if (left < count) return false;
+        } while (!nights.compareAndSet(offset, left, left - count));
+        return true;
+    }
+
+    /**
+     * Gives back a room of the hotel on every night of a stay booked before
+     */
+    public void cancel(Hotel hotel, List<LocalDate> nights) {
+        AtomicIntegerArray counts = rooms.get(hotel);
+        if (counts == null) throw new IllegalArgumentException("Hotel has no inventory: " + hotel.getName());
+        for (LocalDate night : nights) {
+            int offset = offset(night.toEpochDay());
+            if (offset < 0) throw new IllegalArgumentException("Night is outside the horizon: " + night);
+        }
+        for (LocalDate night : nights) counts.incrementAndGet(offset(night.toEpochDay()));
+    }
+}
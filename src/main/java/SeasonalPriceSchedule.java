@@ -0,0 +1,353 @@
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A {@link PriceSchedule} made of a base schedule (e.g. weekday/weekend rates) plus date-range rules:
+ * seasonal, holiday or blackout rates that override the base price, and surcharges added on top of it.
+ * When override rules overlap, the one that comes later in the list wins; surcharges always stack.
+ *
+ * The rules are compiled once into an index of disjoint intervals, each with its resolved override and
+ * surcharge, and into per-day prefix sums over the horizon of the rules (from the first to the last
+ * date any of them covers). A single date is looked up in O(log rules) and a range inside the horizon
+ * is priced with a few subtractions when the base is a {@link DayOfWeekPriceSchedule}; outside the
+ * horizon the base schedule is used as is.
+ *
+ * The base schedule is not copied: changes to its prices are seen by this schedule.
+ */
+public class SeasonalPriceSchedule implements PriceSchedule {
+    private final PriceSchedule base;
+    private final List<Rule> rules;
+    private final Currency currency;
+
+    /**
+     * First and last epoch day covered by any rule
+     */
+    private final long horizonStart;
+    private final long horizonEnd;
+
+    /**
+     * The interval index: interval {@code i} covers the epoch days from {@code starts[i]} until the next
+     * start (or the end of the horizon). Overrides are in minor units and only valid where {@code overridden}.
+     */
+    private final long[] starts;
+    private final boolean[] overridden;
+    private final long[] overrides;
+    private final long[] surcharges;
+
+    /**
+     * Prefix sums per day of the horizon: {@code fixed[i]} is the total of overrides and surcharges of the
+     * first {@code i} days, {@code free[d][i]} how many of them fall on the day of week {@code d} and are
+     * priced by the base schedule. {@code free} is only built for {@link DayOfWeekPriceSchedule} bases.
+     */
+    private final long[] fixed;
+    private final int[][] free;
+
+    /**
+     * @param base the schedule of the dates no override covers, not {@code null}
+     * @param rules the rules, whose amounts must be in the same currency as the base schedule
+     */
+    public SeasonalPriceSchedule(PriceSchedule base, List<Rule> rules) {
+        if (base == null) throw new NullPointerException("Base schedule must not be null");
+        this.base = base;
+        this.rules = List.copyOf(rules);
+
+        long start = Long.MAX_VALUE, end = Long.MIN_VALUE;
+        for (Rule rule : this.rules) {
+            start = Math.min(start, rule.from.toEpochDay());
+            end = Math.max(end, rule.to.toEpochDay());
+        }
+        if (this.rules.isEmpty()) start = end = 0;
+        horizonStart = start;
+        horizonEnd = end;
+        currency = base.getPrice(LocalDate.ofEpochDay(start)).getCurrency();
+        for (Rule rule : this.rules)
+            if (rule.amount.getCurrency() != currency)
+                throw new IllegalArgumentException("Rules must have the same currency as the base schedule");
+
+        Intervals intervals = new Intervals(this.rules);
+        starts = intervals.starts;
+        overridden = intervals.overridden;
+        overrides = intervals.overrides;
+        surcharges = intervals.surcharges;
+
+        int days = this.rules.isEmpty() ? 0 : Math.toIntExact(horizonEnd - horizonStart + 1);
+        fixed = new long[days + 1];
+        free = base instanceof DayOfWeekPriceSchedule ? new int[7][days + 1] : null;
+        for (int i = 0; i < days; i++) {
+            int interval = intervalOf(horizonStart + i);
+            long amount = Math.addExact(overridden[interval] ? overrides[interval] : 0, surcharges[interval]);
+            fixed[i + 1] = Math.addExact(fixed[i], amount);
+            if (free == null) continue;
+            int dayOfWeek = DayOfWeekHistogram.dayOfWeek(horizonStart + i);
+            for (int d = 0; d < 7; d++)
+                free[d][i + 1] = free[d][i] + (d == dayOfWeek && !overridden[interval] ? 1 : 0);
+        }
+    }
+
+    /**
+     * Copies the compiled rules of another schedule over a different base
+     */
+    private SeasonalPriceSchedule(SeasonalPriceSchedule other, PriceSchedule base) {
+        this.base = base;
+        this.rules = other.rules;
+        this.currency = other.currency;
+        this.horizonStart = other.horizonStart;
+        this.horizonEnd = other.horizonEnd;
+        this.starts = other.starts;
+        this.overridden = other.overridden;
+        this.overrides = other.overrides;
+        this.surcharges = other.surcharges;
+        this.fixed = other.fixed;
+        this.free = other.free;
+    }
+
+    /**
+     * Binary search of the interval containing a day of the horizon
+     */
+    private int intervalOf(long epochDay) {
+        int index = Arrays.binarySearch(starts, epochDay);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private boolean inHorizon(long epochDay) {
+        return !rules.isEmpty() && epochDay >= horizonStart && epochDay <= horizonEnd;
+    }
+
+    @Override
+    public Money getPrice(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        if (!inHorizon(epochDay)) return base.getPrice(date);
+        int interval = intervalOf(epochDay);
+        if (surcharges[interval] == 0)
+            return overridden[interval] ? Money.ofMinorUnits(overrides[interval], currency) : base.getPrice(date);
+        MoneyAccumulator total = new MoneyAccumulator(currency);
+        total.add(Money.ofMinorUnits(surcharges[interval], currency));
+        if (overridden[interval]) total.add(Money.ofMinorUnits(overrides[interval], currency));
+        else total.add(base.getPrice(date));
+        return total.toMoney();
+    }
+
+    /**
+     * Prices the parts of the range outside the horizon with the base schedule and the part inside it
+     * with the prefix sums, walking the intervals priced by the base only if it is not day-of-week based
+     */
+    @Override
+    public Money getPrice(LocalDate startingDate, LocalDate endingDate) {
+        MoneyAccumulator total = new MoneyAccumulator(currency);
+        int[] counts = free != null ? new int[7] : null;
+        addRange(total, counts, startingDate.toEpochDay(), endingDate.toEpochDay());
+        return addBase(total, counts).toMoney();
+    }
+
+    /**
+     * Prices the stay run by run like {@link #getPrice(LocalDate, LocalDate)}, but with a day-of-week base
+     * prices the nights left to it all at once at the end, without creating any date
+     */
+    @Override
+    public Money getPrice(StayDates stay) {
+        MoneyAccumulator total = new MoneyAccumulator(currency);
+        int[] counts = free != null ? new int[7] : null;
+        for (int start = 0, end; start < stay.size(); start = end) {
+            end = stay.runEnd(start);
+            addRange(total, counts, stay.getEpochDay(start), stay.getEpochDay(end - 1));
+        }
+        return addBase(total, counts).toMoney();
+    }
+
+    /**
+     * Adds the price of a range of epoch days to the total
+     * @param counts the nights priced by the base, per day of the week, if it is day-of-week based; {@code null} otherwise
+     */
+    private void addRange(MoneyAccumulator total, int[] counts, long start, long end) {
+        if (end < start) return;
+        if (rules.isEmpty() || end < horizonStart || start > horizonEnd) {
+            addBase(total, counts, start, end);
+            return;
+        }
+
+        if (start < horizonStart) addBase(total, counts, start, horizonStart - 1);
+        if (end > horizonEnd) addBase(total, counts, horizonEnd + 1, end);
+        int from = (int) (Math.max(start, horizonStart) - horizonStart);
+        int to = (int) (Math.min(end, horizonEnd) - horizonStart) + 1;
+        total.add(Money.ofMinorUnits(fixed[to] - fixed[from], currency));
+
+        if (counts != null) {
+            for (int d = 0; d < 7; d++) counts[d] += free[d][to] - free[d][from];
+        } else {
+            long last = horizonStart + to - 1;
+            for (int i = intervalOf(horizonStart + from); i < starts.length && starts[i] <= last; i++) {
+                if (overridden[i]) continue;
+                long intervalEnd = i + 1 < starts.length ? starts[i + 1] - 1 : horizonEnd;
+                addBase(total, null, Math.max(starts[i], horizonStart + from), Math.min(intervalEnd, last));
+            }
+        }
+    }
+
+    /**
+     * Prices a range with the base schedule, or only counts its nights if {@code counts} is given
+     */
+    private void addBase(MoneyAccumulator total, int[] counts, long start, long end) {
+        if (counts != null) DayOfWeekHistogram.addRange(counts, start, end);
+        else total.add(base.getPrice(LocalDate.ofEpochDay(start), LocalDate.ofEpochDay(end)));
+    }
+
+    /**
+     * Prices the nights counted for the base, if any
+     */
+    private MoneyAccumulator addBase(MoneyAccumulator total, int[] counts) {
+        if (counts != null) total.add(((DayOfWeekPriceSchedule) base).getPrice(DayOfWeekHistogram.ofCounts(counts)));
+        return total;
+    }
+
+    /**
+     * The rules cannot change, so only changes of the base schedule are notified
+     */
+    @Override
+    public void addChangeListener(Runnable listener) {
+        base.addChangeListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(Runnable listener) {
+        base.removeChangeListener(listener);
+    }
+
+    /**
+     * The rules are immutable, so only the base is copied, keeping the compiled rules
+     */
+    @Override
+    public PriceSchedule snapshot() {
+        PriceSchedule baseSnapshot = base.snapshot();
+        return baseSnapshot == base ? this : new SeasonalPriceSchedule(this, baseSnapshot);
+    }
+
+    public PriceSchedule getBase() {
+        return base;
+    }
+
+    public List<Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * Sweeps the rule boundaries in order, resolving each elementary interval to the latest override
+     * and the sum of the surcharges active in it, and merging neighbouring intervals that resolve the same
+     */
+    private static class Intervals {
+        long[] starts;
+        boolean[] overridden;
+        long[] overrides;
+        long[] surcharges;
+        int size;
+
+        Intervals(List<Rule> rules) {
+            long[] boundaries = new long[rules.size() * 2];
+            for (int i = 0; i < rules.size(); i++) {
+                boundaries[2 * i] = rules.get(i).from.toEpochDay();
+                boundaries[2 * i + 1] = rules.get(i).to.toEpochDay() + 1;
+            }
+            Arrays.sort(boundaries);
+            Integer[] byStart = new Integer[rules.size()];
+            for (int i = 0; i < byStart.length; i++) byStart[i] = i;
+            Arrays.sort(byStart, (a, b) -> rules.get(a).from.compareTo(rules.get(b).from));
+            Integer[] byEnd = byStart.clone();
+            Arrays.sort(byEnd, (a, b) -> rules.get(a).to.compareTo(rules.get(b).to));
+
+            starts = new long[Math.max(1, boundaries.length)];
+            overridden = new boolean[starts.length];
+            overrides = new long[starts.length];
+            surcharges = new long[starts.length];
+            PriorityQueue<Integer> activeOverrides = new PriorityQueue<>((a, b) -> Integer.compare(b, a));
+            long surcharge = 0;
+            int opened = 0, closed = 0;
+            for (int b = 0; b < boundaries.length; b++) {
+                long point = boundaries[b];
+                if (point == boundaries[boundaries.length - 1]) break;
+                if (b > 0 && point == boundaries[b - 1]) continue;
+                for (; closed < byEnd.length && rules.get(byEnd[closed]).to.toEpochDay() < point; closed++) {
+                    Rule rule = rules.get(byEnd[closed]);
+                    if (rule.kind == Kind.SURCHARGE) surcharge -= rule.amount.getMinorUnits();
+                }
+                for (; opened < byStart.length && rules.get(byStart[opened]).from.toEpochDay() <= point; opened++) {
+                    Rule rule = rules.get(byStart[opened]);
+                    if (rule.kind == Kind.SURCHARGE) surcharge = Math.addExact(surcharge, rule.amount.getMinorUnits());
+                    else activeOverrides.add(byStart[opened]);
+                }
+                while (!activeOverrides.isEmpty() && rules.get(activeOverrides.peek()).to.toEpochDay() < point)
+                    activeOverrides.poll();
+                Integer override = activeOverrides.peek();
+                append(point, override != null, override == null ? 0 : rules.get(override).amount.getMinorUnits(), surcharge);
+            }
+            if (size == 0) append(0, false, 0, 0);
+            starts = Arrays.copyOf(starts, size);
+            overridden = Arrays.copyOf(overridden, size);
+            overrides = Arrays.copyOf(overrides, size);
+            surcharges = Arrays.copyOf(surcharges, size);
+        }
+
+        private void append(long start, boolean isOverridden, long override, long surcharge) {
+            if (size > 0 && overridden[size - 1] == isOverridden && overrides[size - 1] == override
+                    && surcharges[size - 1] == surcharge) return;
+            starts[size] = start;
+            overridden[size] = isOverridden;
+            overrides[size] = override;
+            surcharges[size] = surcharge;
+            size++;
+        }
+    }
+
+    enum Kind { OVERRIDE, SURCHARGE }
+
+    /**
+     * A price change over an inclusive range of dates
+     */
+    public static final class Rule {
+        private final Kind kind;
+        private final LocalDate from;
+        private final LocalDate to;
+        private final Money amount;
+
+        private Rule(Kind kind, LocalDate from, LocalDate to, Money amount) {
+            if (from == null || to == null) throw new NullPointerException("Dates must not be null");
+            if (amount == null) throw new NullPointerException("Amount must not be null");
+            if (to.isBefore(from)) throw new IllegalArgumentException("Rule must not end before it starts");
+            this.kind = kind;
+            this.from = from;
+            this.to = to;
+            this.amount = amount;
+        }
+
+        /**
+         * A nightly price that replaces the base price, e.g. a season or a blackout rate
+         */
+        public static Rule override(LocalDate from, LocalDate to, Money price) {
+            return new Rule(Kind.OVERRIDE, from, to, price);
+        }
+
+        /**
+         * A nightly amount added to whatever the price is, e.g. a holiday surcharge
+         */
+        public static Rule surcharge(LocalDate from, LocalDate to, Money amount) {
+            return new Rule(Kind.SURCHARGE, from, to, amount);
+        }
+
+        public boolean isOverride() {
+            return kind == Kind.OVERRIDE;
+        }
+
+        public LocalDate getFrom() {
+            return from;
+        }
+
+        public LocalDate getTo() {
+            return to;
+        }
+
+        public Money getAmount() {
+            return amount;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+import java.io.UncheckedIOException;
+
+/**
+ * A part of a catalog that finds its own cheapest hotel, so {@link ShardedReservation} can query
+ * the parts in parallel and merge their answers.
+ */
+public interface Shard {
+    /**
+     * @param query the query, in the same format as {@link HotelReservation#getCheapestHotel(String)}
+     * @return the quote of the cheapest hotel of the shard, ordered by the position of the hotel in the whole
+     * catalog, or {@code null} if the shard has no hotels
+     * @throws IllegalStateException if the query is malformed
+     * @throws UncheckedIOException if the shard cannot be reached
+     */
+    Quote getCheapest(String query);
+}
@@ -0,0 +1,147 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Currency;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Serves a {@link Shard} to {@link RemoteShard}s of other processes, over TCP on the loopback interface.
+ *
+ * The protocol is line based, in UTF-8: each request is a query on its own line, and each response one line,
+ * with its fields separated by tabs:
+ * <ul>
+ *     <li>{@code OK}, the position, rank, price in minor units, currency, reference price in minor units,
+ *     reference currency and name of the cheapest hotel of the shard</li>
+ *     <li>{@code NONE} if the shard has no hotels</li>
+ *     <li>{@code ERROR} and the message of the error if the query failed</li>
+ * </ul>
+ * Connections are kept open for any number of requests, each one handled on its own thread. A connection that
+ * fails is closed; if accepting connections fails, the worker stops, keeping the {@link #getFailure() error}.
+ */
+public final class ShardWorker implements AutoCloseable {
+    private final Shard shard;
+    private final ServerSocket server;
+    private final ExecutorService executor;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private volatile IOException failure;
+
+    /**
+     * @param shard the shard answering the queries
+     * @param port the port to listen on, or {@code 0} for any free port
+     */
+    public ShardWorker(Shard shard, int port) throws IOException {
+        this.shard = shard;
+        this.server = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        this.executor = ThreadPerTaskExecutors.newExecutor("shard-worker");
+    }
+
+    /**
+     * Starts accepting connections on a thread of its own, which keeps the JVM running until {@link #close()}
+     */
+    public void start() {
+        new Thread(this::accept, "shard-worker-acceptor").start();
+    }
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * @return the error that stopped the worker from accepting connections, or {@code null} if it is running
+     * or was {@link #close() closed}
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    private void accept() {
+        try {
+            while (true) {
+                Socket socket = server.accept();
+                connections.add(socket);
+                try {
+                    executor.execute(() -> serve(socket));
+                } catch (RejectedExecutionException e) {
+                    connections.remove(socket);
+                    socket.close();
+                }
+            }
+        } catch (IOException e) {
+            // closed by close(), or failing for good: either way the worker stops rather than retry
+            if (!server.isClosed()) failure = e;
+            try {
+                close();
+            } catch (IOException ignored) {
+                // already stopping
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            for (String query = in.readLine(); query != null; query = in.readLine()) {
+                out.write(respond(query));
+                out.write('\n');
+                out.flush();
+            }
+        } catch (IOException e) {
+            // closed by the client or by close(), or failed: the connection is dropped
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    private String respond(String query) {
+        try {
+            Quote quote = shard.getCheapest(query);
+            return quote == null ? "NONE" : format(quote);
+        } catch (RuntimeException e) {
+            return "ERROR\t" + String.valueOf(e.getMessage()).replaceAll("[\r\n]", " ");
+        }
+    }
+
+    static String format(Quote quote) {
+        return String.join("\t", "OK", Integer.toString(quote.getOrder()), Integer.toString(quote.getRank()),
+                Long.toString(quote.getPrice().getMinorUnits()), quote.getPrice().getCurrency().getCurrencyCode(),
+                Long.toString(quote.getReferencePrice().getMinorUnits()),
+                quote.getReferencePrice().getCurrency().getCurrencyCode(), quote.getHotelName());
+    }
+
+    /**
+     * @return the quote of an {@code OK} response, {@code null} for a {@code NONE} one
+     * @throws IllegalStateException with the message of the error for an {@code ERROR} response
+     */
+    static Quote parse(String response) {
+        if (response.equals("NONE")) return null;
+        if (response.startsWith("ERROR\t")) throw new IllegalStateException(response.substring(6));
+        String[] fields = response.split("\t", 8);
+        if (fields.length != 8 || !fields[0].equals("OK"))
+            throw new IllegalStateException("Malformed shard response: " + response);
+        Money price = Money.ofMinorUnits(Long.parseLong(fields[3]), Currency.getInstance(fields[4]));
+        Money referencePrice = Money.ofMinorUnits(Long.parseLong(fields[5]), Currency.getInstance(fields[6]));
+        return new Quote(fields[7], Integer.parseInt(fields[2]), price, referencePrice, Integer.parseInt(fields[1]));
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones
+     */
+    @Override
+    public void close() throws IOException {
+        server.close();
+        for (Socket socket : connections) socket.close();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,144 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * A catalog split in {@link Shard}s, each finding its own cheapest hotel, in parallel, for every query.
+ *
+ * The answers of the shards are merged the way {@link Hotel#comparePrice} orders hotels: cheapest first and,
+ * on equal prices, highest rank first. Shards report where their hotels are in the whole catalog, so hotels
+ * still tied are broken by catalog order, and the answer is the one a single {@link HotelReservation} holding
+ * the whole catalog would give. Shards may be {@link LocalShard local} or {@link RemoteShard remote}, served
+ * by {@link ShardWorker}s in other processes.
+ */
+public final class ShardedReservation implements AutoCloseable {
+    private static final ThreadLocal<QueryParser> PARSER = ThreadLocal.withInitial(QueryParser::new);
+
+    private final List<Shard> shards;
+    private final ExecutorService executor;
+
+    /**
+     * @param shards the shards, at least one
+     */
+    public ShardedReservation(List<? extends Shard> shards) {
+        if (shards.isEmpty()) throw new IllegalArgumentException("At least one shard is required");
+        this.shards = List.copyOf(shards);
+        this.executor = ThreadPerTaskExecutors.newExecutor("sharded-reservation");
+    }
+
+    /**
+     * Splits a catalog in local shards by the hash of the names of the hotels
+     * @see #shardOf(Hotel, int)
+     */
+    public static ShardedReservation ofHotels(List<Hotel> hotels, int shards) {
+        if (shards < 1) throw new IllegalArgumentException("At least one shard is required");
+        int[] keys = new int[hotels.size()];
+        for (int i = 0; i < keys.length; i++) keys[i] = shardOf(hotels.get(i), shards);
+        return new ShardedReservation(partition(hotels, keys, shards));
+    }
+
+    /**
+     * Splits a catalog in one local shard per region, in the order the regions first appear in the catalog
+     * @param region the region of each hotel, e.g. its city
+     */
+    public static ShardedReservation ofHotels(List<Hotel> hotels, Function<? super Hotel, ?> region) {
+        Map<Object, Integer> regions = new HashMap<>();
+        int[] keys = new int[hotels.size()];
+        for (int i = 0; i < keys.length; i++)
+            keys[i] = regions.computeIfAbsent(region.apply(hotels.get(i)), r -> regions.size());
+        return new ShardedReservation(partition(hotels, keys, regions.size()));
+    }
+
+    /**
+     * Buckets the hotels and their positions by shard in a single pass over the catalog
+     * @param keys the shard of each hotel of the catalog
+     */
+    private static List<LocalShard> partition(List<Hotel> hotels, int[] keys, int shards) {
+        int[] sizes = new int[shards];
+        for (int key : keys) sizes[key]++;
+        List<List<Hotel>> buckets = new ArrayList<>(shards);
+        int[][] positions = new int[shards][];
+        for (int shard = 0; shard < shards; shard++) {
+            buckets.add(new ArrayList<>(sizes[shard]));
+            positions[shard] = new int[sizes[shard]];
+        }
+        for (int i = 0; i < keys.length; i++) {
+            List<Hotel> bucket = buckets.get(keys[i]);
+            positions[keys[i]][bucket.size()] = i;
+            bucket.add(hotels.get(i));
+        }
+        List<LocalShard> parts = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) parts.add(LocalShard.of(buckets.get(shard), positions[shard]));
+        return parts;
+    }
+
+    /**
+     * @param ports the ports of the {@link ShardWorker}s on the loopback interface, one per shard
+     */
+    public static ShardedReservation ofWorkers(int... ports) {
+        List<RemoteShard> parts = new ArrayList<>(ports.length);
+        for (int port : ports) parts.add(new RemoteShard(port));
+        return new ShardedReservation(parts);
+    }
+
+    /**
+     * @return the shard of the hotel among the given number of shards, from the hash of its name
+     */
+    public static int shardOf(Hotel hotel, int shards) {
+        return Math.floorMod(hotel.getName().hashCode(), shards);
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public String getCheapestHotel(String input) throws IllegalStateException {
+        return getCheapestQuote(input).getHotelName();
+    }
+
+    /**
+     * Checks the query once, then asks every shard for its cheapest hotel in parallel, answering one of
+     * them on the calling thread, and keeps the cheapest of their answers. If a shard fails, the answers still
+     * pending are cancelled and its error is thrown.
+     * @throws NoSuchElementException if no shard has hotels
+     */
+    public Quote getCheapestQuote(String input) throws IllegalStateException {
+        PARSER.get().parse(input);
+        List<CompletableFuture<Quote>> answers = new ArrayList<>(shards.size() - 1);
+        for (int i = 1; i < shards.size(); i++) {
+            Shard shard = shards.get(i);
+            answers.add(CompletableFuture.supplyAsync(() -> shard.getCheapest(input), executor));
+        }
+        Quote cheapest;
+        try {
+            cheapest = shards.get(0).getCheapest(input);
+            for (CompletableFuture<Quote> answer : answers) {
+                Quote quote = answer.join();
+                if (quote != null && (cheapest == null || quote.compareTo(cheapest) < 0)) cheapest = quote;
+            }
+        } catch (RuntimeException e) {
+            // no answer is needed anymore: the shards not asked yet are not asked at all
+            for (CompletableFuture<Quote> answer : answers) answer.cancel(true);
+            if (e instanceof CompletionException && e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw e;
+        }
+        if (cheapest == null) throw new NoSuchElementException("No hotels available");
+        return cheapest;
+    }
+
+    /**
+     * Stops the threads of the queries and closes the shards that hold connections
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        for (Shard shard : shards) if (shard instanceof RemoteShard) ((RemoteShard) shard).close();
+    }
+}
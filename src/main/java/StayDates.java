@@ -0,0 +1,136 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable set of nights of a stay, kept as sorted epoch days in a primitive array.
+ *
+ * The day of the week of each night and the {@link DayOfWeekHistogram} of the stay are computed once, when
+ * the stay is created, so schedules price it from primitive arrays without creating any {@link LocalDate}.
+ * The order the nights were given in is not kept; a night given twice is priced twice.
+ */
+public final class StayDates {
+    private final int[] epochDays;
+    /**
+     * The {@link DayOfWeek#ordinal()} of each night
+     */
+    private final byte[] daysOfWeek;
+    private final DayOfWeekHistogram histogram;
+
+    private StayDates(int[] epochDays) {
+        if (epochDays.length == 0) throw new IllegalArgumentException("A stay must have at least one night");
+        Arrays.sort(epochDays);
+        this.epochDays = epochDays;
+        this.daysOfWeek = new byte[epochDays.length];
+        int[] counts = new int[7];
+        for (int i = 0; i < epochDays.length; i++) {
+            int dayOfWeek = DayOfWeekHistogram.dayOfWeek(epochDays[i]);
+            daysOfWeek[i] = (byte) dayOfWeek;
+            counts[dayOfWeek]++;
+        }
+        this.histogram = DayOfWeekHistogram.ofCounts(counts);
+    }
+
+    /**
+     * @throws IllegalArgumentException if there are no dates
+     */
+    public static StayDates of(Collection<LocalDate> dates) {
+        int[] epochDays = new int[dates.size()];
+        int i = 0;
+        for (LocalDate date : dates) epochDays[i++] = Math.toIntExact(date.toEpochDay());
+        return new StayDates(epochDays);
+    }
+
+    public static StayDates of(LocalDate... dates) {
+        return of(Arrays.asList(dates));
+    }
+
+    /**
+     * @param epochDays the dates, as epoch days; copied
+     * @param size how many of the epoch days to take, from the start of the array
+     * @throws IllegalArgumentException if there are no dates
+     */
+    public static StayDates ofEpochDays(int[] epochDays, int size) {
+        return new StayDates(Arrays.copyOf(epochDays, size));
+    }
+
+    /**
+     * @return how many nights the stay has
+     */
+    public int size() {
+        return epochDays.length;
+    }
+
+    /**
+     * @param index the position of the night, in date order
+     * @return the night, as an epoch day
+     */
+    public int getEpochDay(int index) {
+        return epochDays[index];
+    }
+
+    /**
+     * @param index the position of the night, in date order
+     * @return the {@link DayOfWeek#ordinal()} of the night
+     */
+    public int getDayOfWeek(int index) {
+        return daysOfWeek[index];
+    }
+
+    public int getFirstEpochDay() {
+        return epochDays[0];
+    }
+
+    public int getLastEpochDay() {
+        return epochDays[epochDays.length - 1];
+    }
+
+    /**
+     * @param from the position of the first night of a run
+     * @return the position after the last night of the run of consecutive nights starting at {@code from}
+     */
+    public int runEnd(int from) {
+        int end = from + 1;
+        while (end < epochDays.length && epochDays[end] == epochDays[end - 1] + 1) end++;
+        return end;
+    }
+
+    public DayOfWeekHistogram histogram() {
+        return histogram;
+    }
+
+    /**
+     * @return the nights, in date order, created as they are read
+     */
+    public List<LocalDate> toDates() {
+        return new AbstractList<LocalDate>() {
+            @Override
+            public LocalDate get(int index) {
+                return LocalDate.ofEpochDay(epochDays[index]);
+            }
+
+            @Override
+            public int size() {
+                return epochDays.length;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof StayDates && Arrays.equals(epochDays, ((StayDates) o).epochDays);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(epochDays);
+    }
+
+    @Override
+    public String toString() {
+        return toDates().toString();
+    }
+}
@@ -0,0 +1,26 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors starting a thread per task, shared by the servers and the sharded queries.
+ */
+final class ThreadPerTaskExecutors {
+    private ThreadPerTaskExecutors() {}
+
+    /**
+     * @param name the name of the pooled threads
+     * @return an executor starting a virtual thread per task when the runtime has them (Java 21 and later),
+     * or a cached pool of daemon threads otherwise
+     */
+    static ExecutorService newExecutor(String name) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -1,11 +1,13 @@
 import java.time.DayOfWeek;
 import java.time.LocalDate;
-import java.time.temporal.ChronoField;
 import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-public class WeekendPriceSchedule implements PriceSchedule {
+public class WeekendPriceSchedule implements DayOfWeekPriceSchedule {
     private Money weekdayPrice;
     private Money weekendPrice;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
 
     public WeekendPriceSchedule(Money weekdayPrice, Money weekendPrice) {
         this.weekdayPrice = weekdayPrice;
@@ -32,14 +34,30 @@ public class WeekendPriceSchedule implements PriceSchedule {
                 new Money(weekendPrice, currency));
     }
 
-    private static boolean isWeekend(LocalDate date) {
-        DayOfWeek day = DayOfWeek.of(date.get(ChronoField.DAY_OF_WEEK));
+    private static boolean isWeekend(DayOfWeek day) {
         return day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
     }
 
     @Override
     public Money getPrice(LocalDate date) {
-        return isWeekend(date) ? weekendPrice : weekdayPrice;
+        return isWeekend(date.getDayOfWeek()) ? weekendPrice : weekdayPrice;
+    }
+
+    @Override
+    public Money getPrice(DayOfWeek day) {
+        return isWeekend(day) ? weekendPrice : weekdayPrice;
+    }
+
+    /**
+     * Prices a stay with one multiplication per kind of day, however many nights it has
+     * @throws ArithmeticException if the total overflows
+     */
+    @Override
+    public Money getPrice(DayOfWeekHistogram histogram) {
+        return new MoneyAccumulator()
+                .add(weekdayPrice, histogram.getWeekdays())
+                .add(weekendPrice, histogram.getWeekends())
+                .toMoney();
     }
 
     public Money getWeekdayPrice() {
@@ -48,6 +66,7 @@ public class WeekendPriceSchedule implements PriceSchedule {
 
     public void setWeekdayPrice(Money weekdayPrice) {
         this.weekdayPrice = weekdayPrice;
+        listeners.forEach(Runnable::run);
     }
 
     public Money getWeekendPrice() {
@@ -56,5 +75,21 @@ public class WeekendPriceSchedule implements PriceSchedule {
 
     public void setWeekendPrice(Money weekendPrice) {
         this.weekendPrice = weekendPrice;
+        listeners.forEach(Runnable::run);
+    }
+
+    @Override
+    public PriceSchedule snapshot() {
+        return new WeekendPriceSchedule(weekdayPrice, weekendPrice);
+    }
+
+    @Override
+    public void addChangeListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeChangeListener(Runnable listener) {
+        listeners.remove(listener);
     }
 }
@@ -0,0 +1,47 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class BulkQueryRunnerTest {
+    private static final String[] QUERIES = {
+            "Regular: 16Mar2009(mon), 17Mar2009(tues), 18Mar2009(wed)",
+            "Regular: 20Mar2009(fri), 21Mar2009(sat), 22Mar2009(sun)",
+            "Rewards: 26Mar2009(thur), 27Mar2009(fri), 28Mar2009(sat)",
+            "Regular: 30Feb2009(mon)"
+    };
+
+    @Test
+    public void testRun() throws IOException {
+        HotelReservation reservation = new HotelReservation();
+        List<String> lines = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            String query = QUERIES[i % QUERIES.length];
+            lines.add(query);
+            try {
+                expected.add(reservation.getCheapestHotel(query));
+            } catch (IllegalStateException e) {
+                expected.add("ERROR " + e.getMessage());
+            }
+        }
+        Path input = Files.createTempFile("queries", ".txt");
+        Path output = Files.createTempFile("answers", ".txt");
+        try {
+            Files.writeString(input, String.join("\r\n", lines), StandardCharsets.US_ASCII);
+            BulkQueryRunner.Summary summary = new BulkQueryRunner(reservation, 4, 100).run(input, output);
+            assertEquals(1000, summary.getLines());
+            assertEquals(250, summary.getErrors());
+            assertEquals(expected, Files.readAllLines(output));
+        } finally {
+            Files.delete(input);
+            Files.delete(output);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CatalogFileTest {
+    private static final String[] QUERIES = {
+            "Regular: 16Mar2009(mon), 17Mar2009(tues), 18Mar2009(wed)",
+            "Regular: 20Mar2009(fri), 21Mar2009(sat), 22Mar2009(sun)",
+            "Rewards: 26Mar2009(thur), 27Mar2009(fri), 28Mar2009(sat)",
+            "Corporate: 16Mar2009(mon)"
+    };
+
+    @Test
+    public void testImportCsv() throws IOException {
+        Path csv = Files.createTempFile("catalog", ".csv");
+        Path file = Files.createTempFile("catalog", ".bin");
+        try {
+            Files.writeString(csv, "name,rank,currency,Regular weekday,Regular weekend,Rewards weekday,Rewards weekend,"
+                    + "Corporate weekday,Corporate weekend\n"
+                    + "Lakewood,3,BRL,110,90,80,80,,\n"
+                    + "Bridgewood,4,BRL,160.00,60.00,110.00,50.00,,\n"
+                    + "Ridgewood,5,BRL,220,150,100,40,,\n"
+                    + "\"Corp, Inc.\",1,BRL,500,500,500,500,50.5,50.5\n", StandardCharsets.UTF_8);
+            assertEquals(4, CatalogFile.importCsv(csv, file));
+            MappedCatalog catalog = MappedCatalog.open(file);
+            assertEquals(4, catalog.size());
+            assertEquals("Corp, Inc.", catalog.getName(3));
+            assertEquals(5, catalog.getRank(2));
+            assertEquals(Currency.getInstance("BRL"), catalog.getCurrency(0));
+            assertEquals(Money.reais(50.5), catalog.getWeekendRate(3, ClientType.CORPORATE));
+            assertTrue(catalog.hasOwnRates(3, ClientType.CORPORATE));
+            assertFalse(catalog.hasOwnRates(0, ClientType.CORPORATE));
+
+            HotelReservation reservation = new HotelReservation(catalog.asHotels());
+            String[] answers = { "Lakewood", "Bridgewood", "Ridgewood", "Corp, Inc." };
+            for (int i = 0; i < QUERIES.length; i++) {
+                assertEquals(answers[i], catalog.getCheapestHotel(QUERIES[i]));
+                assertEquals(answers[i], reservation.getCheapestHotel(QUERIES[i]));
+            }
+        } finally {
+            Files.delete(csv);
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testWriteHotels() throws IOException {
+        Path file = Files.createTempFile("catalog", ".bin");
+        try {
+            HotelReservation reservation = new HotelReservation();
+            CatalogFile.write(reservation.getHotels(), file);
+            List<Hotel> hotels = MappedCatalog.open(file).asHotels();
+            assertEquals(reservation.getHotels().size(), hotels.size());
+            for (int i = 0; i < hotels.size(); i++) {
+                Hotel expected = reservation.getHotels().get(i);
+                assertEquals(expected.getName(), hotels.get(i).getName());
+                assertEquals(((WeekendPriceSchedule) expected.getRewardsSchedule()).getWeekendPrice(),
+                        ((WeekendPriceSchedule) hotels.get(i).getRewardsSchedule()).getWeekendPrice());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMixedCurrencies() throws IOException {
+        Path file = Files.createTempFile("catalog", ".bin");
+        try {
+            CatalogFile.write(List.of(Hotel.withWeekendSchedule("Lakewood", 3, 110, 90, 80, 80),
+                    new Hotel("Seaside", 3, new WeekendPriceSchedule(20, 20, Currency.getInstance("USD")),
+                            new WeekendPriceSchedule(20, 20, Currency.getInstance("USD")))), file);
+            try {
+                MappedCatalog.open(file).getCheapestHotel(QUERIES[0]);
+                fail("Compared prices of different currencies");
+            } catch (IllegalArgumentException expected) {
+                assertTrue(expected.getMessage().startsWith("Catalog " + file + " mixes currency 0 and 1"));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testTruncatedNames() throws IOException {
+        Path file = Files.createTempFile("catalog", ".bin");
+        try {
+            CatalogFile.write(new HotelReservation().getHotels(), file);
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 4));
+            MappedCatalog catalog = MappedCatalog.open(file);
+            assertEquals("Lakewood", catalog.getName(0));
+            try {
+                catalog.getName(2);
+                fail("Read a name past the end of the file");
+            } catch (IllegalStateException expected) {
+                // reported as a corrupt catalog
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testInvalidFiles() throws IOException {
+        Path csv = Files.createTempFile("catalog", ".csv");
+        Path file = Files.createTempFile("catalog", ".bin");
+        try {
+            Files.writeString(file, "not a catalog at all, not even close");
+            try {
+                MappedCatalog.open(file);
+                fail("Opened a file that is not a catalog");
+            } catch (IOException expected) {
+                // rejected as it should be
+            }
+            Files.writeString(csv, "name,rank,currency,Regular weekday,Regular weekend\nLakewood,3,BRL,110.001,90\n");
+            try {
+                CatalogFile.importCsv(csv, file);
+                fail("Imported a rate with more digits than the currency has");
+            } catch (IllegalStateException expected) {
+                // rejected as it should be
+            }
+        } finally {
+            Files.delete(csv);
+            Files.delete(file);
+        }
+    }
+}
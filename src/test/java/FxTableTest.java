@@ -0,0 +1,52 @@
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class FxTableTest {
+    private static final Currency BRL = Currency.getInstance("BRL");
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency JPY = Currency.getInstance("JPY");
+
+    @Test
+    public void testConversion() {
+        FxTable table = new FxTable(BRL).withRate(USD, 5_250_000L);
+        assertEquals(Money.reais(52.50), table.toReference(new Money(10, USD)));
+        Money reais = Money.reais(10);
+        assertSame(reais, table.toReference(reais));
+        assertEquals(5_250_000L, table.getRate(USD));
+        assertEquals(FxTable.SCALE, table.getRate(BRL));
+    }
+
+    @Test
+    public void testHalfEvenRounding() {
+        FxTable table = new FxTable(USD).withRate(JPY, 5_000L);
+        assertEquals(0, table.toReference(1, JPY));
+        assertEquals(2, table.toReference(3, JPY));
+        assertEquals(0, table.toReference(-1, JPY));
+        assertEquals(-2, table.toReference(-3, JPY));
+    }
+
+    @Test
+    public void testMatchesBigDecimal() {
+        Random random = new Random(12);
+        for (int i = 0; i < 10_000; i++) {
+            long rate = 1 + random.nextInt(Integer.MAX_VALUE);
+            long amount = random.nextLong() >> 20;
+            FxTable table = new FxTable(JPY).withRate(USD, rate);
+            long expected = BigDecimal.valueOf(amount).multiply(BigDecimal.valueOf(rate))
+                    .divide(BigDecimal.valueOf(FxTable.SCALE * 100), RoundingMode.HALF_EVEN).longValueExact();
+            assertEquals(expected, table.toReference(amount, USD));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingRate() {
+        new FxTable(BRL).toReference(new Money(1, USD));
+    }
+}
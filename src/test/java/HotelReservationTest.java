@@ -0,0 +1,212 @@
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HotelReservationTest {
+    private static final String[] QUERIES = {
+            "Regular: 16Mar2009(mon), 17Mar2009(tues), 18Mar2009(wed)",
+            "Regular: 20Mar2009(fri), 21Mar2009(sat), 22Mar2009(sun)",
+            "Rewards: 26Mar2009(thur), 27Mar2009(fri), 28Mar2009(sat)"
+    };
+    private static final String[] ANSWERS = { "Lakewood", "Bridgewood", "Ridgewood" };
+
+    @Test
+    public void testBatch() {
+        HotelReservation reservation = new HotelReservation();
+        List<String> inputs = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) inputs.add(i % 100 == 99 ? "Invalid: 16Mar2009(mon)" : QUERIES[i % 3]);
+        List<QueryResult> results = reservation.getCheapestHotels(inputs);
+        assertEquals(inputs.size(), results.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            QueryResult result = results.get(i);
+            if (i % 100 == 99) {
+                assertFalse(result.isSuccess());
+                assertTrue(result.getError() instanceof IllegalStateException);
+            } else {
+                assertEquals(ANSWERS[i % 3], result.getHotelName());
+            }
+        }
+    }
+
+    @Test
+    public void testBatchStream() {
+        List<QueryResult> results = new HotelReservation().getCheapestHotels(Stream.of(QUERIES));
+        for (int i = 0; i < QUERIES.length; i++) assertEquals(ANSWERS[i], results.get(i).getHotelName());
+    }
+
+    @Test
+    public void testPriceIndex() throws InterruptedException {
+        HotelReservation reservation = new HotelReservation();
+        reservation.enablePriceIndex(LocalDate.of(2009, 1, 1), LocalDate.of(2009, 12, 31));
+        assertTrue(reservation.isPriceIndexCurrent());
+        for (int i = 0; i < QUERIES.length; i++) assertEquals(ANSWERS[i], reservation.getCheapestHotel(QUERIES[i]));
+        assertEquals("Lakewood", reservation.getCheapestHotel("Regular: 31Dec2009(thu), 01Jan2010(fri)"));
+
+        Hotel lakewood = reservation.getHotels().get(0);
+        ((WeekendPriceSchedule) lakewood.getRegularSchedule()).setWeekdayPrice(Money.reais(170));
+        assertEquals("Bridgewood", reservation.getCheapestHotel(QUERIES[0]));
+        for (int i = 0; i < 100 && !reservation.isPriceIndexCurrent(); i++) Thread.sleep(10);
+        assertTrue(reservation.isPriceIndexCurrent());
+        assertEquals("Bridgewood", reservation.getCheapestHotel(QUERIES[0]));
+
+        reservation.addHotel(Hotel.withWeekendSchedule("Cheapwood", 1, 10, 10, 10, 10));
+        assertEquals("Cheapwood", reservation.getCheapestHotel(QUERIES[2]));
+        for (int i = 0; i < 100 && !reservation.isPriceIndexCurrent(); i++) Thread.sleep(10);
+        assertEquals("Cheapwood", reservation.getCheapestHotel(QUERIES[2]));
+    }
+
+    @Test
+    public void testRankedQuotes() {
+        HotelReservation reservation = new HotelReservation();
+        reservation.addHotel(Hotel.withWeekendSchedule("Oakwood", 5, 110, 90, 80, 80));
+        List<Quote> quotes = reservation.getRankedQuotes(QUERIES[0], 3);
+        assertEquals(3, quotes.size());
+        assertEquals("Oakwood", quotes.get(0).getHotelName());
+        assertEquals("Lakewood", quotes.get(1).getHotelName());
+        assertEquals(Money.reais(330), quotes.get(1).getPrice());
+        assertEquals("Bridgewood", quotes.get(2).getHotelName());
+        assertEquals(4, reservation.getRankedQuotes(QUERIES[0], 10).size());
+        assertEquals(reservation.getCheapestHotel(QUERIES[1]),
+                reservation.getRankedQuotes(QUERIES[1], 1).get(0).getHotelName());
+    }
+
+    @Test
+    public void testConcurrentCatalogChanges() throws InterruptedException {
+        HotelReservation reservation = new HotelReservation();
+        WeekendPriceSchedule lakewood = (WeekendPriceSchedule) reservation.getHotels().get(0).getRegularSchedule();
+        long version = reservation.getCatalogVersion();
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread reader = new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        String name = reservation.getCheapestHotel(QUERIES[0]);
+                        if (!name.equals("Lakewood") && !name.equals("Bridgewood") && !name.equals("Extrawood"))
+                            throw new AssertionError(name);
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        Hotel extra = Hotel.withWeekendSchedule("Extrawood", 1, 100, 100, 100, 100);
+        for (int i = 0; i < 2000; i++) {
+            lakewood.setWeekdayPrice(Money.reais(i % 2 == 0 ? 170 : 110));
+            if (i % 10 == 0) reservation.addHotel(extra);
+            if (i % 10 == 5) reservation.removeHotel(extra);
+        }
+        running.set(false);
+        for (Thread reader : readers) reader.join();
+        assertTrue(errors.toString(), errors.isEmpty());
+        assertEquals(version + 2400, reservation.getCatalogVersion());
+        assertEquals("Lakewood", reservation.getCheapestHotel(QUERIES[0]));
+        assertEquals(3, reservation.getHotels().size());
+    }
+
+    @Test
+    public void testQueryCache() {
+        HotelReservation reservation = new HotelReservation();
+        reservation.enableQueryCache(100);
+        assertEquals("Lakewood", reservation.getCheapestHotel(QUERIES[0]));
+        assertEquals("Lakewood", reservation.getCheapestHotel("Regular: 23Mar2009(mon), 25Mar2009(wed), 27Mar2009(fri)"));
+        assertEquals(1, reservation.getQueryCacheHits());
+        assertEquals(1, reservation.getQueryCacheMisses());
+
+        WeekendPriceSchedule lakewood = (WeekendPriceSchedule) reservation.getHotels().get(0).getRegularSchedule();
+        lakewood.setWeekdayPrice(Money.reais(170));
+        assertEquals("Bridgewood", reservation.getCheapestHotel(QUERIES[0]));
+        assertEquals(2, reservation.getQueryCacheMisses());
+
+        reservation.addHotel(new Hotel("Seasonwood", 1, new SeasonalPriceSchedule(new WeekendPriceSchedule(1, 1), List.of()),
+                new WeekendPriceSchedule(1, 1)));
+        assertEquals("Seasonwood", reservation.getCheapestHotel(QUERIES[0]));
+        assertEquals("Seasonwood", reservation.getCheapestHotel(QUERIES[0]));
+        assertEquals(1, reservation.getQueryCacheHits());
+        assertEquals(2, reservation.getQueryCacheMisses());
+    }
+
+    @Test
+    public void testClientTypes() {
+        HotelReservation reservation = new HotelReservation();
+        Hotel corporate = new Hotel("Corpwood", 2, Map.of(
+                ClientType.REGULAR, new WeekendPriceSchedule(500, 500),
+                ClientType.CORPORATE, new WeekendPriceSchedule(50, 50)));
+        reservation.addHotel(corporate);
+        assertEquals("Corpwood", reservation.getCheapestHotel("Corporate: 16Mar2009(mon), 17Mar2009(tues)"));
+        assertEquals("Lakewood", reservation.getCheapestHotel("Gold: 16Mar2009(mon), 17Mar2009(tues)"));
+
+        Map<ClientType, String> cheapest = reservation.getCheapestHotelByClientType("26Mar2009(thur), 27Mar2009(fri), 28Mar2009(sat)");
+        assertEquals("Lakewood", cheapest.get(ClientType.REGULAR));
+        assertEquals("Ridgewood", cheapest.get(ClientType.REWARDS));
+        assertEquals("Corpwood", cheapest.get(ClientType.CORPORATE));
+        assertEquals("Lakewood", cheapest.get(ClientType.STAFF));
+
+        corporate.setSchedule(ClientType.CORPORATE, null);
+        assertEquals(reservation.getCheapestHotel("Regular: 16Mar2009(mon)"), reservation.getCheapestHotel("Corporate: 16Mar2009(mon)"));
+    }
+
+    @Test
+    public void testMixedCurrencies() {
+        Currency usd = Currency.getInstance("USD");
+        HotelReservation reservation = new HotelReservation();
+        reservation.addHotel(new Hotel("Seawood", 1, Map.of(
+                ClientType.REGULAR, new WeekendPriceSchedule(new Money(20, usd), new Money(20, usd)))));
+        try {
+            reservation.getCheapestHotel("Regular: 16Mar2009(mon)");
+            fail("Compared prices of different currencies without exchange rates");
+        } catch (IllegalArgumentException expected) {
+            // no rate to compare with
+        }
+
+        reservation.setFxTable(new FxTable(Currency.getInstance("BRL")).withRate(usd, 5_000_000L));
+        assertEquals("Seawood", reservation.getCheapestHotel("Regular: 16Mar2009(mon)"));
+        assertEquals("Lakewood", reservation.getCheapestHotel("Rewards: 16Mar2009(mon)"));
+        assertEquals(new Money(20, usd), reservation.getRankedQuotes("Regular: 16Mar2009(mon)", 1).get(0).getPrice());
+        reservation.enablePriceIndex(LocalDate.of(2009, 1, 1), LocalDate.of(2009, 12, 31));
+        assertEquals("Seawood", reservation.getCheapestHotel("Regular: 16Mar2009(mon)"));
+
+        reservation.setFxTable(new FxTable(Currency.getInstance("BRL")).withRate(usd, 6_000_000L));
+        assertEquals("Lakewood", reservation.getCheapestHotel("Regular: 16Mar2009(mon)"));
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        HotelReservation reservation = new HotelReservation();
+        ReservationMetrics metrics = reservation.enableMetrics();
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertTrue(server.isRegistered(metrics.getObjectName()));
+
+        for (int i = 0; i < QUERIES.length; i++) assertEquals(ANSWERS[i], reservation.getCheapestHotel(QUERIES[i]));
+        reservation.getCheapestHotels(List.of("Regular: 30Feb2009(mon)", "Premium: 16Mar2009(mon)", QUERIES[0]));
+        assertEquals(6L, server.getAttribute(metrics.getObjectName(), "QueryCount"));
+        assertEquals(3L, (long) metrics.getQueriesByClientType().get("Regular"));
+        assertEquals(1L, (long) metrics.getQueriesByClientType().get("Rewards"));
+        assertEquals(2L, metrics.getErrorCount());
+        assertEquals(1L, (long) metrics.getErrorsByCause().get("INVALID_DATE"));
+        assertEquals(1L, (long) metrics.getErrorsByCause().get("CLIENT_TYPE"));
+        assertEquals(4L, Arrays.stream(metrics.getPriceLatencyHistogram()).sum());
+        assertEquals(reservation.getHotels().size(), metrics.getCatalogSize());
+
+        reservation.disableMetrics();
+        assertFalse(server.isRegistered(metrics.getObjectName()));
+    }
+}
@@ -0,0 +1,86 @@
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class HullIndexTest {
+    /**
+     * Few distinct rates and ranks, so that many hotels tie and the tie-break is exercised
+     */
+    private static List<Hotel> hotels(Random random, int size) {
+        List<Hotel> hotels = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            hotels.add(Hotel.withWeekendSchedule("Hotel " + i, 1 + random.nextInt(3),
+                    1 + random.nextInt(20), 1 + random.nextInt(20), 1 + random.nextInt(20), 1 + random.nextInt(20)));
+        }
+        return hotels;
+    }
+
+    /**
+     * The cheapest hotel the way a scan finds it
+     */
+    private static int scan(List<Hotel> hotels, ClientType clientType, int weekdays, int weekends) {
+        int cheapest = 0;
+        Money cheapestPrice = null;
+        for (int i = 0; i < hotels.size(); i++) {
+            WeekendPriceSchedule schedule = (WeekendPriceSchedule) hotels.get(i).getSchedule(clientType);
+            Money price = schedule.getWeekdayPrice().multiply(weekdays).add(schedule.getWeekendPrice().multiply(weekends));
+            if (cheapestPrice == null
+                    || Hotel.compare(price, hotels.get(i).getRank(), cheapestPrice, hotels.get(cheapest).getRank()) < 0) {
+                cheapest = i;
+                cheapestPrice = price;
+            }
+        }
+        return cheapest;
+    }
+
+    @Test
+    public void testMatchesScan() {
+        Random random = new Random(18);
+        for (int size : new int[]{ 1, 2, 5, 50, 500 }) {
+            List<Hotel> hotels = hotels(random, size);
+            for (ClientType clientType : new ClientType[]{ ClientType.REGULAR, ClientType.REWARDS }) {
+                HullIndex index = HullIndex.of(hotels, clientType);
+                assertNotNull(index);
+                for (int weekdays = 0; weekdays <= 12; weekdays++) {
+                    for (int weekends = 0; weekends <= 12; weekends++) {
+                        if (weekdays + weekends == 0) continue;
+                        assertEquals(scan(hotels, clientType, weekdays, weekends), index.getCheapest(weekdays, weekends));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUnsupportedCatalogs() {
+        List<Hotel> hotels = hotels(new Random(1), 3);
+        hotels.get(1).setRegularSchedule(new WeekendPriceSchedule(10, 10, Currency.getInstance("USD")));
+        assertNull(HullIndex.of(hotels, ClientType.REGULAR));
+        hotels.get(1).setRegularSchedule(date -> Money.reais(10));
+        assertNull(HullIndex.of(hotels, ClientType.REGULAR));
+    }
+
+    @Test
+    public void testReservation() {
+        List<Hotel> hotels = hotels(new Random(7), 2 * HullIndex.MIN_HOTELS);
+        HotelReservation reservation = new HotelReservation(hotels);
+        String[] queries = {
+                "Regular: 16Mar2009(mon), 17Mar2009(tues), 18Mar2009(wed)",
+                "Regular: 20Mar2009(fri), 21Mar2009(sat), 22Mar2009(sun)",
+                "Rewards: 26Mar2009(thur), 27Mar2009(fri), 28Mar2009(sat)"
+        };
+        int[][] nights = { { 3, 0 }, { 1, 2 }, { 2, 1 } };
+        ClientType[] clientTypes = { ClientType.REGULAR, ClientType.REGULAR, ClientType.REWARDS };
+        for (int i = 0; i < queries.length; i++) {
+            assertEquals(hotels.get(scan(hotels, clientTypes[i], nights[i][0], nights[i][1])).getName(),
+                    reservation.getCheapestHotel(queries[i]));
+        }
+    }
+}
@@ -1,5 +1,11 @@
 import org.junit.Test;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Random;
+import java.util.function.Supplier;
+
 import static org.junit.Assert.assertEquals;
 
 public class MoneyTest {
@@ -52,4 +58,57 @@ public class MoneyTest {
         assertEquals(nProp[1].toString(), "R$46.15");
         assertEquals(nProp[2].toString(), "R$107.69");
     }
+
+    @Test
+    public void testAccumulator() {
+        MoneyAccumulator total = new MoneyAccumulator();
+        total.add(Money.reais(10.12745)).add(Money.reais(200), 3).subtract(Money.reais(0.5));
+        assertEquals(total.toMoney().toString(), "R$609.63");
+        assertEquals(total.reset().add(Money.reais(1)).toMoney().toString(), "R$1.00");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAccumulatorCurrency() {
+        new MoneyAccumulator(Currency.getInstance("USD")).add(Money.reais(1));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testAccumulatorOverflow() {
+        new MoneyAccumulator().add(Money.reais(Long.MAX_VALUE / 200), 3);
+    }
+
+    /**
+     * The exact fast paths must agree with the BigDecimal arithmetic they stand in for, in every rounding mode
+     */
+    @Test
+    public void testExactArithmetic() {
+        Random random = new Random(13);
+        BigDecimal cents = BigDecimal.valueOf(100);
+        for (int i = 0; i < 20_000; i++) {
+            long amount = random.nextLong() >> random.nextInt(64);
+            BigDecimal factor = BigDecimal.valueOf(random.nextLong() >> random.nextInt(64), random.nextInt(8));
+            RoundingMode mode = RoundingMode.values()[random.nextInt(RoundingMode.values().length)];
+            Money money = Money.ofMinorUnits(amount, Currency.getInstance("BRL"));
+            BigDecimal major = BigDecimal.valueOf(amount, 2);
+            assertEquals(outcome(() -> major.multiply(factor).setScale(2, mode).multiply(cents).longValue()),
+                    outcome(() -> money.multiply(factor, mode).getMinorUnits()));
+            if (factor.signum() == 0) continue;
+            assertEquals(outcome(() -> major.divide(factor, mode).setScale(2, mode).multiply(cents).longValue()),
+                    outcome(() -> money.divide(factor, mode).getMinorUnits()));
+            long integral = factor.unscaledValue().longValue();
+            BigDecimal divisor = BigDecimal.valueOf(integral);
+            assertEquals(outcome(() -> major.multiply(divisor).setScale(2, RoundingMode.HALF_EVEN).multiply(cents).longValue()),
+                    outcome(() -> money.multiply(integral).getMinorUnits()));
+            assertEquals(outcome(() -> major.divide(divisor, RoundingMode.HALF_EVEN).multiply(cents).longValue()),
+                    outcome(() -> money.divide(integral).getMinorUnits()));
+        }
+    }
+
+    private static String outcome(Supplier<Long> operation) {
+        try {
+            return String.valueOf(operation.get());
+        } catch (ArithmeticException e) {
+            return "ArithmeticException";
+        }
+    }
 }
@@ -0,0 +1,164 @@
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class PriceWatchTest {
+    private static final String[] QUERIES = {
+            "Regular: 16Mar2009(mon), 17Mar2009(tues), 18Mar2009(wed)",
+            "Rewards: 20Mar2009(fri), 21Mar2009(sat), 22Mar2009(sun)",
+            "Regular: 21Mar2009(sat), 28Mar2009(sat)",
+            "Rewards: 26Mar2009(thur)"
+    };
+
+    @Test
+    public void testListenerOnWinnerChange() {
+        HotelReservation reservation = new HotelReservation();
+        List<String> winners = new ArrayList<>();
+        PriceWatch watch = reservation.watch(QUERIES[0], w -> winners.add(w.getWinner()));
+        assertEquals("Lakewood", watch.getWinner());
+
+        Hotel lakewood = reservation.getHotels().get(0);
+        Hotel bridgewood = reservation.getHotels().get(1);
+        ((WeekendPriceSchedule) bridgewood.getRegularSchedule()).setWeekdayPrice(Money.reais(150));
+        lakewood.setRank(2);
+        assertEquals(List.of(), winners);
+
+        ((WeekendPriceSchedule) bridgewood.getRegularSchedule()).setWeekdayPrice(Money.reais(100));
+        assertEquals(List.of("Bridgewood"), winners);
+        reservation.removeHotel(bridgewood);
+        assertEquals(List.of("Bridgewood", "Lakewood"), winners);
+        reservation.addHotel(Hotel.withWeekendSchedule("Lakeview", 2, 110, 90, 80, 80));
+        assertEquals(2, winners.size());
+
+        watch.cancel();
+        assertNull(watch.getWinner());
+        reservation.addHotel(Hotel.withWeekendSchedule("Cheapwood", 1, 10, 10, 10, 10));
+        assertEquals(2, winners.size());
+    }
+
+    @Test
+    public void testMatchesFullEvaluation() {
+        Random random = new Random(5);
+        HotelReservation reservation = new HotelReservation(List.of());
+        List<Hotel> hotels = new ArrayList<>();
+        List<PriceWatch> watches = new ArrayList<>();
+        int[] notifications = new int[QUERIES.length];
+        String[] seen = new String[QUERIES.length];
+        for (int q = 0; q < QUERIES.length; q++) {
+            int query = q;
+            watches.add(reservation.watch(QUERIES[q], w -> {
+                notifications[query]++;
+                seen[query] = w.getWinner();
+            }));
+            assertNull(watches.get(q).getWinner());
+        }
+
+        for (int step = 0; step < 500; step++) {
+            int action = hotels.isEmpty() ? 0 : random.nextInt(4);
+            if (action == 0) {
+                Hotel hotel = Hotel.withWeekendSchedule("Hotel " + step, 1 + random.nextInt(3), 50 + random.nextInt(10),
+                        50 + random.nextInt(10), 50 + random.nextInt(10), 50 + random.nextInt(10));
+                hotels.add(hotel);
+                reservation.addHotel(hotel);
+            } else if (action == 1) {
+                reservation.removeHotel(hotels.remove(random.nextInt(hotels.size())));
+            } else if (action == 2) {
+                hotels.get(random.nextInt(hotels.size())).setRank(1 + random.nextInt(3));
+            } else {
+                Hotel hotel = hotels.get(random.nextInt(hotels.size()));
+                ((WeekendPriceSchedule) hotel.getSchedule(ClientType.of(random.nextInt(2))))
+                        .setWeekendPrice(Money.reais(50 + random.nextInt(10)));
+            }
+            for (int q = 0; q < QUERIES.length; q++) {
+                String expected = hotels.isEmpty() ? null : reservation.getCheapestHotel(QUERIES[q]);
+                assertEquals(expected, watches.get(q).getWinner());
+                if (notifications[q] > 0) assertEquals(expected, seen[q]);
+            }
+        }
+    }
+
+    /**
+     * A changed hotel is only priced for the queries whose price per night its cheapest night can beat
+     */
+    @Test
+    public void testUnaffectedNotRepriced() {
+        long[] nightly = { 500 };
+        int[] priced = new int[1];
+        DayOfWeekPriceSchedule schedule = new DayOfWeekPriceSchedule() {
+            @Override
+            public Money getPrice(DayOfWeek day) {
+                return Money.reais(nightly[0]);
+            }
+
+            @Override
+            public Money getPrice(StayDates stay) {
+                priced[0]++;
+                return DayOfWeekPriceSchedule.super.getPrice(stay);
+            }
+        };
+        Hotel palace = new Hotel("Palace", 5, schedule, schedule);
+        HotelReservation reservation = new HotelReservation();
+        reservation.addHotel(palace);
+        List<PriceWatch> watches = new ArrayList<>();
+        for (String query : QUERIES) watches.add(reservation.watch(query, w -> {}));
+
+        priced[0] = 0;
+        palace.setRank(4);
+        assertEquals(0, priced[0]);
+        nightly[0] = 85;
+        palace.setRank(5);
+        assertEquals(1, priced[0]);
+        nightly[0] = 50;
+        palace.setRank(4);
+        assertEquals(1 + QUERIES.length, priced[0]);
+        for (PriceWatch watch : watches) assertEquals("Palace", watch.getWinner());
+    }
+
+    /**
+     * Prices per night are compared exactly: a tie at an amount a double cannot hold still challenges the query
+     */
+    @Test
+    public void testTieAtLargeAmount() {
+        Money price = Money.ofMinorUnits(242_723_878_390_248_370L, Currency.getInstance("BRL"));
+        WeekendPriceSchedule expensive = new WeekendPriceSchedule(price.multiply(2), price.multiply(2));
+        HotelReservation reservation = new HotelReservation(List.of(
+                new Hotel("Lakewood", 1, new WeekendPriceSchedule(price, price), new WeekendPriceSchedule(price, price)),
+                new Hotel("Ridgewood", 5, expensive, expensive)));
+        PriceWatch watch = reservation.watch(QUERIES[0], w -> {});
+        assertEquals("Lakewood", watch.getWinner());
+
+        expensive.setWeekdayPrice(price);
+        assertEquals(reservation.getCheapestHotel(QUERIES[0]), watch.getWinner());
+        assertEquals("Ridgewood", watch.getWinner());
+    }
+
+    @Test
+    public void testExchangeRates() {
+        Currency usd = Currency.getInstance("USD");
+        HotelReservation reservation = new HotelReservation(List.of(
+                Hotel.withWeekendSchedule("Lakewood", 3, 110, 90, 80, 80),
+                new Hotel("Seaside", 3,
+                        new WeekendPriceSchedule(20, 20, usd), new WeekendPriceSchedule(20, 20, usd))));
+        int[] notifications = new int[1];
+        PriceWatch watch = reservation.watch(QUERIES[0], w -> notifications[0]++);
+        assertNull(watch.getWinner());
+        assertNotNull(watch.getError());
+
+        reservation.setFxTable(new FxTable(Currency.getInstance("BRL")).withRate(usd, 5_000_000));
+        assertEquals("Seaside", watch.getWinner());
+        reservation.setFxTable(new FxTable(Currency.getInstance("BRL")).withRate(usd, 4_000_000));
+        assertEquals(1, notifications[0]);
+        reservation.setFxTable(new FxTable(usd).withRate(Currency.getInstance("BRL"), 100_000));
+        assertEquals("Lakewood", watch.getWinner());
+        assertEquals(2, notifications[0]);
+        assertNull(watch.getError());
+    }
+}
@@ -0,0 +1,143 @@
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+public class PricingRulesTest {
+    private static final String QUERY = "Regular: 16Mar2009(mon), 17Mar2009(tues), 18Mar2009(wed)";
+
+    private static PricingRules rules(PricingRules.Rule... rules) {
+        return new PricingRules(List.of(rules));
+    }
+
+    private static StayDates stay(String query) {
+        QueryParser parser = new QueryParser();
+        parser.parse(query);
+        return parser.toStayDates();
+    }
+
+    @Test
+    public void testRules() {
+        PricingRules stayPay = rules(PricingRules.Rule.stayPay(4, 3), PricingRules.Rule.stayPay(7, 5));
+        assertEquals(60000, stayPay.apply(80000, ClientType.REGULAR, 8));
+        assertEquals(40000, stayPay.apply(50000, ClientType.REGULAR, 5));
+        assertEquals(50000, stayPay.apply(70000, ClientType.REGULAR, 7));
+        assertEquals(30000, stayPay.apply(30000, ClientType.REGULAR, 3));
+
+        PricingRules lengthOfStay = rules(PricingRules.Rule.lengthOfStay(3, 1000),
+                PricingRules.Rule.lengthOfStay(7, 1500));
+        assertEquals(20000, lengthOfStay.apply(20000, ClientType.REGULAR, 2));
+        assertEquals(27000, lengthOfStay.apply(30000, ClientType.REGULAR, 3));
+        assertEquals(59500, lengthOfStay.apply(70000, ClientType.REGULAR, 7));
+        assertEquals(85000, lengthOfStay.apply(100000, ClientType.REGULAR, 10));
+
+        PricingRules clientType = rules(PricingRules.Rule.clientTypeDiscount(ClientType.REWARDS, 500),
+                PricingRules.Rule.clientTypeDiscount(ClientType.REWARDS, 500));
+        assertEquals(9000, clientType.apply(10000, ClientType.REWARDS, 1));
+        assertEquals(10000, clientType.apply(10000, ClientType.REGULAR, 1));
+
+        PricingRules minimum = rules(PricingRules.Rule.minimumNights(2), PricingRules.Rule.minimumNights(3));
+        assertFalse(minimum.isOffered(2));
+        assertEquals(PricingRules.NOT_OFFERED, minimum.apply(20000, ClientType.REGULAR, 2));
+        assertNull(minimum.apply(Money.reais(200), ClientType.REGULAR, 2));
+        assertEquals(Money.reais(300), minimum.apply(Money.reais(300), ClientType.REGULAR, 3));
+    }
+
+    @Test
+    public void testStackingAndRounding() {
+        PricingRules stacked = rules(PricingRules.Rule.stayPay(4, 3), PricingRules.Rule.lengthOfStay(4, 1000),
+                PricingRules.Rule.clientTypeDiscount(ClientType.REWARDS, 1000));
+        assertEquals(24300, stacked.apply(40000, ClientType.REWARDS, 4));
+        assertEquals(27000, stacked.apply(40000, ClientType.REGULAR, 4));
+
+        PricingRules half = rules(PricingRules.Rule.lengthOfStay(1, 5000));
+        assertEquals(8, half.apply(15, ClientType.REGULAR, 1));
+        assertEquals(6, half.apply(13, ClientType.REGULAR, 1));
+        assertEquals(2, rules(PricingRules.Rule.stayPay(3, 2)).apply(3, ClientType.REGULAR, 3));
+
+        try {
+            rules(PricingRules.Rule.clientTypeDiscount(ClientType.GOLD, 6000),
+                    PricingRules.Rule.clientTypeDiscount(ClientType.GOLD, 6000));
+            fail("Accepted discounts over 100%");
+        } catch (IllegalArgumentException expected) {
+            // the discounts of a client type add up
+        }
+    }
+
+    @Test
+    public void testReservation() {
+        HotelReservation reservation = new HotelReservation();
+        List<Hotel> hotels = reservation.getHotels();
+        hotels.get(0).setPricingRules(rules(PricingRules.Rule.minimumNights(4)));
+        hotels.get(2).setPricingRules(rules(PricingRules.Rule.stayPay(3, 1)));
+        assertNull(hotels.get(0).getPrice(ClientType.REGULAR, stay(QUERY)));
+        assertEquals("Ridgewood", reservation.getCheapestHotel(QUERY));
+        assertEquals(2, reservation.getRankedQuotes(QUERY, 3).size());
+        assertEquals(Money.reais(220), reservation.getRankedQuotes(QUERY, 1).get(0).getPrice());
+        Map<ClientType, String> byClientType = reservation.getCheapestHotelByClientType(QUERY.substring(9));
+        assertEquals("Ridgewood", byClientType.get(ClientType.REGULAR));
+
+        reservation.enablePriceIndex(LocalDate.of(2009, 3, 1), LocalDate.of(2009, 3, 31));
+        assertEquals("Ridgewood", reservation.getCheapestHotel(QUERY));
+        for (Hotel hotel : hotels) hotel.setPricingRules(rules(PricingRules.Rule.minimumNights(5)));
+        reservation.disablePriceIndex();
+        try {
+            reservation.getCheapestHotel(QUERY);
+            fail("Answered a stay no hotel offers");
+        } catch (NoSuchElementException expected) {
+            // every hotel requires longer stays
+        }
+        assertEquals(Map.of(), reservation.getCheapestHotelByClientType(QUERY.substring(9)));
+    }
+
+    @Test
+    public void testClientTypeWithoutSchedule() {
+        HotelReservation reservation = new HotelReservation();
+        Hotel bridgewood = reservation.getHotels().get(1);
+        bridgewood.setPricingRules(rules(PricingRules.Rule.clientTypeDiscount(ClientType.GOLD, 5000)));
+        String dates = QUERY.substring(9);
+        for (boolean indexed : new boolean[]{ false, true }) {
+            if (indexed) reservation.enablePriceIndex(LocalDate.of(2009, 3, 1), LocalDate.of(2009, 3, 31));
+            Map<ClientType, String> byClientType = reservation.getCheapestHotelByClientType(dates);
+            for (ClientType clientType : ClientType.values()) {
+                assertEquals(reservation.getCheapestHotel(clientType.getLabel() + ": " + dates),
+                        byClientType.get(clientType));
+            }
+            assertEquals("Bridgewood", byClientType.get(ClientType.GOLD));
+            assertEquals("Lakewood", byClientType.get(ClientType.REGULAR));
+        }
+    }
+
+    /**
+     * Catalogs large enough for the hull index, which must not answer for hotels with rules
+     */
+    @Test
+    public void testLargeCatalog() {
+        Random random = new Random(13);
+        List<Hotel> hotels = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Hotel hotel = Hotel.withWeekendSchedule("Hotel " + i, 1 + random.nextInt(3), 50 + random.nextInt(50),
+                    50 + random.nextInt(50), 40 + random.nextInt(50), 40 + random.nextInt(50));
+            if (random.nextInt(3) == 0) {
+                hotel.setPricingRules(rules(PricingRules.Rule.stayPay(2 + random.nextInt(3), 1),
+                        PricingRules.Rule.minimumNights(1 + random.nextInt(3))));
+            }
+            hotels.add(hotel);
+        }
+        HotelReservation reservation = new HotelReservation(hotels);
+        String[] queries = { QUERY, "Rewards: 20Mar2009(fri)", "Regular: 20Mar2009(fri), 21Mar2009(sat)" };
+        for (String query : queries) {
+            assertEquals(reservation.getRankedQuotes(query, 1).get(0).getHotelName(),
+                    reservation.getCheapestHotel(query));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+import org.junit.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class QueryParserTest {
+    private static int epochDay(int year, int month, int day) {
+        return (int) LocalDate.of(year, month, day).toEpochDay();
+    }
+
+    @Test
+    public void testParse() {
+        QueryParser parser = new QueryParser();
+        parser.parse("Regular: 16Mar2009(mon), 17Mar2009(tues), 18Mar2009(wed)");
+        assertEquals(ClientType.REGULAR, parser.getClientType());
+        assertArrayEquals(new int[]{epochDay(2009, 3, 16), epochDay(2009, 3, 17), epochDay(2009, 3, 18)},
+                parser.toEpochDays());
+
+        parser.parse("Rewards:29Feb2000(tue),01Jan1970(thu),31Dec9999(fri)");
+        assertEquals(ClientType.REWARDS, parser.getClientType());
+        assertArrayEquals(new int[]{epochDay(2000, 2, 29), 0, epochDay(9999, 12, 31)}, parser.toEpochDays());
+    }
+
+    @Test
+    public void testEpochDays() {
+        QueryParser parser = new QueryParser();
+        for (LocalDate date = LocalDate.of(1899, 12, 25); date.getYear() < 2101; date = date.plusDays(17)) {
+            String month = date.getMonth().name();
+            parser.parse(String.format("Regular: %02d%s%s%04d(xxx)", date.getDayOfMonth(),
+                    month.charAt(0), month.substring(1, 3).toLowerCase(), date.getYear()));
+            assertEquals(date.toEpochDay(), parser.getEpochDay(0));
+        }
+    }
+
+    @Test
+    public void testBufferGrowth() {
+        StringBuilder input = new StringBuilder("Regular: 01Jan2020(wed)");
+        for (int i = 2; i <= 31; i++) input.append(String.format(", %02dJan2020(xxx)", i));
+        QueryParser parser = new QueryParser();
+        parser.parse(input);
+        assertEquals(31, parser.size());
+        assertEquals(LocalDate.of(2020, 1, 31), parser.toDates().get(30));
+    }
+
+    @Test
+    public void testInvalidInput() {
+        String[] inputs = {
+                "", "Regular", "Regular 16Mar2009(mon)", "Premium: 16Mar2009(mon)", "Regular:",
+                "Regular: 16Mar2009(mon),", "Regular: 16Mar2009(mon) 17Mar2009(tues)", "Regular: 16Mar2009",
+                "Regular: 16Mar2009()", "Regular: 16Xyz2009(mon)", "Regular: 29Feb2009(sun)",
+                "Regular: 00Mar2009(sun)", "Regular: 1Mar2009(sun)", "Regular: 16Mar2009(mon",
+                "Regular: 16mar2009(mon)", "Regular: 16MAR2009(mon)", "Regular: 16Mar2009(mo)",
+                "Regular: 16Mar2009(monday)", "Regular: 16Mar2009(MON)"
+        };
+        QueryParser parser = new QueryParser();
+        for (String input : inputs) {
+            try {
+                parser.parse(input);
+                throw new AssertionError("Accepted invalid input: " + input);
+            } catch (IllegalStateException expected) {
+                // rejected as it should be
+            }
+        }
+    }
+
+    @Test
+    public void testRejectionReason() {
+        String[] inputs = { "Premium: 16Mar2009(mon)", "Regular: 16Mar2009(mon);", "Regular: 16Mar2009", "Regular: 29Feb2009(sun)" };
+        QueryFormatException.Reason[] reasons = {
+                QueryFormatException.Reason.CLIENT_TYPE, QueryFormatException.Reason.SEPARATOR,
+                QueryFormatException.Reason.DATE_FORMAT, QueryFormatException.Reason.INVALID_DATE
+        };
+        QueryParser parser = new QueryParser();
+        for (int i = 0; i < inputs.length; i++) {
+            try {
+                parser.parse(inputs[i]);
+                throw new AssertionError("Accepted invalid input: " + inputs[i]);
+            } catch (QueryFormatException e) {
+                assertEquals(reasons[i], e.getReason());
+            }
+        }
+    }
+}
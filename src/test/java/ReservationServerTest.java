@@ -0,0 +1,131 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReservationServerTest {
+    private ReservationServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new ReservationServer(new HotelReservation(), 0);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    private HttpURLConnection post(String path, String body) throws IOException {
+        URL url = new URL("http", "localhost", server.getAddress().getPort(), path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return connection;
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        try (InputStream in = connection.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testCheapest() throws IOException {
+        String body = "Regular: 16Mar2009(mon), 17Mar2009(tues), 18Mar2009(wed)\n"
+                + "Regular: 20Mar2009(fri), 21Mar2009(sat), 22Mar2009(sun)\n"
+                + "Premium: 16Mar2009(mon)\n"
+                + "Rewards: 26Mar2009(thur), 27Mar2009(fri), 28Mar2009(sat)\n";
+        for (int i = 0; i < 3; i++) {
+            HttpURLConnection connection = post("/cheapest", body);
+            assertEquals(200, connection.getResponseCode());
+            assertEquals("Lakewood\nBridgewood\nERROR Expected <ClientType>: at position 0\nRidgewood\n", read(connection));
+        }
+    }
+
+    @Test
+    public void testQuotes() throws IOException {
+        HttpURLConnection connection = post("/quotes?k=2", "Regular: 16Mar2009(mon)\n");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("Lakewood R$110.00\tBridgewood R$160.00\n", read(connection));
+        assertEquals(400, post("/quotes?k=0", "Regular: 16Mar2009(mon)\n").getResponseCode());
+    }
+
+    private static String request(String path, String body) {
+        return "POST " + path + " HTTP/1.1\r\nHost: localhost\r\nContent-Length: "
+                + body.getBytes(StandardCharsets.UTF_8).length + "\r\n\r\n" + body;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        for (int b = in.read(); b != '\n'; b = in.read()) {
+            if (b < 0) throw new IOException("Connection closed");
+            if (b != '\r') line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads one response off the connection, as the status code followed by the body
+     */
+    private static String readResponse(InputStream in) throws IOException {
+        String status = readLine(in).split(" ")[1];
+        int length = 0;
+        for (String header = readLine(in); !header.isEmpty(); header = readLine(in)) {
+            if (header.toLowerCase().startsWith("content-length:"))
+                length = Integer.parseInt(header.substring(15).trim());
+        }
+        return status + " " + new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testPipelinedKeepAlive() throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getAddress().getPort())) {
+            OutputStream out = socket.getOutputStream();
+            InputStream in = socket.getInputStream();
+            out.write((request("/cheapest", "Regular: 16Mar2009(mon)\n")
+                    + request("/quotes?k=1", "Regular: 16Mar2009(mon)\n")).getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals("200 Lakewood\n", readResponse(in));
+            assertEquals("200 Lakewood R$110.00\n", readResponse(in));
+
+            out.write(request("/cheapest", "Rewards: 26Mar2009(thur), 27Mar2009(fri), 28Mar2009(sat)\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals("200 Ridgewood\n", readResponse(in));
+        }
+    }
+
+    @Test
+    public void testBodyLimit() throws IOException {
+        try (ReservationServer limited = new ReservationServer(new HotelReservation(), 0, 64)) {
+            limited.start();
+            URL url = new URL("http", "localhost", limited.getAddress().getPort(), "/cheapest");
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write("Regular: 16Mar2009(mon)\n".repeat(10).getBytes(StandardCharsets.UTF_8));
+            }
+            assertEquals(413, connection.getResponseCode());
+        }
+        HttpURLConnection connection = post("/cheapest", "Regular: 16Mar2009(mon)\n".repeat(10));
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("Lakewood\n".repeat(10), read(connection));
+    }
+}
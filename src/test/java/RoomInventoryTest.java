@@ -0,0 +1,119 @@
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RoomInventoryTest {
+    private static final LocalDate START = LocalDate.of(2009, 3, 1);
+
+    @Test
+    public void testAllOrNothing() {
+        Hotel hotel = Hotel.withWeekendSchedule("Lakewood", 3, 110, 90, 80, 80);
+        RoomInventory inventory = new RoomInventory(START, START.plusDays(30));
+        inventory.setRooms(hotel, 2);
+        inventory.setRooms(hotel, START.plusDays(2), 0);
+        assertFalse(inventory.book(hotel, List.of(START, START.plusDays(1), START.plusDays(2))));
+        assertEquals(2, inventory.getRooms(hotel, START));
+        assertEquals(2, inventory.getRooms(hotel, START.plusDays(1)));
+
+        assertTrue(inventory.book(hotel, List.of(START, START.plusDays(1))));
+        assertEquals(1, inventory.getRooms(hotel, START));
+        assertFalse(inventory.book(hotel, List.of(START.plusDays(30), START.plusDays(31))));
+        assertEquals(2, inventory.getRooms(hotel, START.plusDays(30)));
+        inventory.cancel(hotel, List.of(START, START.plusDays(1)));
+        assertEquals(2, inventory.getRooms(hotel, START));
+    }
+
+    @Test
+    public void testBookCheapestAvailable() {
+        HotelReservation reservation = new HotelReservation();
+        RoomInventory inventory = new RoomInventory(LocalDate.of(2009, 3, 1), LocalDate.of(2009, 3, 31));
+        for (Hotel hotel : reservation.getHotels()) inventory.setRooms(hotel, 1);
+        reservation.setRoomInventory(inventory);
+        String query = "Regular: 16Mar2009(mon), 17Mar2009(tues), 18Mar2009(wed)";
+        assertEquals("Lakewood", reservation.getCheapestAvailableHotel(query));
+        assertEquals("Lakewood", reservation.book(query));
+        assertEquals("Bridgewood", reservation.getCheapestAvailableHotel(query));
+        assertEquals("Bridgewood", reservation.book(query));
+        assertEquals("Ridgewood", reservation.book(query));
+        try {
+            reservation.book(query);
+            fail("Booked a sold out stay");
+        } catch (NoSuchElementException expected) {
+            // every hotel is sold out
+        }
+        assertEquals("Lakewood", reservation.book("Regular: 19Mar2009(thur)"));
+    }
+
+    @Test
+    public void testConcurrentBookings() throws InterruptedException {
+        HotelReservation reservation = new HotelReservation();
+        RoomInventory inventory = new RoomInventory(LocalDate.of(2009, 3, 1), LocalDate.of(2009, 3, 31));
+        for (Hotel hotel : reservation.getHotels()) inventory.setRooms(hotel, 50);
+        reservation.setRoomInventory(inventory);
+        String[] queries = {
+                "Regular: 16Mar2009(mon), 17Mar2009(tues)",
+                "Regular: 17Mar2009(tues), 18Mar2009(wed)",
+                "Rewards: 16Mar2009(mon)"
+        };
+        int[] nights = { 2, 2, 1 };
+        AtomicInteger booked = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int offset = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    int query = (i + offset) % queries.length;
+                    try {
+                        reservation.book(queries[query]);
+                        booked.addAndGet(nights[query]);
+                    } catch (NoSuchElementException soldOut) {
+                        // another thread took the last rooms
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) thread.join();
+
+        int taken = 0;
+        for (Hotel hotel : reservation.getHotels()) {
+            for (int day = 16; day <= 18; day++) {
+                int rooms = inventory.getRooms(hotel, LocalDate.of(2009, 3, day));
+                assertTrue(rooms >= 0);
+                taken += 50 - rooms;
+            }
+        }
+        assertEquals(booked.get(), taken);
+    }
+
+    @Test(timeout = 5_000)
+    public void testRepeatedNight() {
+        HotelReservation reservation = new HotelReservation();
+        RoomInventory inventory = new RoomInventory(LocalDate.of(2009, 3, 1), LocalDate.of(2009, 3, 31));
+        Hotel lakewood = reservation.getHotels().get(0);
+        inventory.setRooms(lakewood, 1);
+        reservation.setRoomInventory(inventory);
+        String query = "Regular: 16Mar2009(mon), 16Mar2009(mon)";
+        try {
+            reservation.book(query);
+            fail("Booked two rooms of a night with one left");
+        } catch (NoSuchElementException expected) {
+            // the night is asked twice and has one room
+        }
+        assertEquals(1, inventory.getRooms(lakewood, LocalDate.of(2009, 3, 16)));
+
+        inventory.setRooms(lakewood, 2);
+        assertEquals("Lakewood", reservation.book(query));
+        assertEquals(0, inventory.getRooms(lakewood, LocalDate.of(2009, 3, 16)));
+        assertEquals(2, inventory.getRooms(lakewood, LocalDate.of(2009, 3, 17)));
+    }
+}
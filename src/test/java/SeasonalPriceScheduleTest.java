@@ -0,0 +1,102 @@
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class SeasonalPriceScheduleTest {
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    /**
+     * Applies the rules date by date, as the schedule is documented to behave
+     */
+    private static Money expected(PriceSchedule base, List<SeasonalPriceSchedule.Rule> rules, LocalDate date) {
+        Money price = base.getPrice(date);
+        for (SeasonalPriceSchedule.Rule rule : rules)
+            if (rule.isOverride() && !date.isBefore(rule.getFrom()) && !date.isAfter(rule.getTo())) price = rule.getAmount();
+        for (SeasonalPriceSchedule.Rule rule : rules)
+            if (!rule.isOverride() && !date.isBefore(rule.getFrom()) && !date.isAfter(rule.getTo())) price = price.add(rule.getAmount());
+        return price;
+    }
+
+    private static List<SeasonalPriceSchedule.Rule> randomRules(Random random, int count) {
+        List<SeasonalPriceSchedule.Rule> rules = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            LocalDate from = START.plusDays(random.nextInt(700));
+            LocalDate to = from.plusDays(random.nextInt(60));
+            Money amount = Money.reais(random.nextInt(30000) / 100d);
+            rules.add(random.nextInt(3) == 0
+                    ? SeasonalPriceSchedule.Rule.surcharge(from, to, amount)
+                    : SeasonalPriceSchedule.Rule.override(from, to, amount));
+        }
+        return rules;
+    }
+
+    @Test
+    public void testDatePrice() {
+        Random random = new Random(42);
+        WeekendPriceSchedule base = new WeekendPriceSchedule(110, 90);
+        List<SeasonalPriceSchedule.Rule> rules = randomRules(random, 200);
+        SeasonalPriceSchedule schedule = new SeasonalPriceSchedule(base, rules);
+        for (LocalDate date = START.minusDays(10); date.isBefore(START.plusDays(800)); date = date.plusDays(1))
+            assertEquals(expected(base, rules, date), schedule.getPrice(date));
+    }
+
+    @Test
+    public void testRangePrice() {
+        Random random = new Random(7);
+        WeekendPriceSchedule weekend = new WeekendPriceSchedule(110, 90);
+        PriceSchedule generic = weekend::getPrice;
+        for (PriceSchedule base : new PriceSchedule[]{ weekend, generic }) {
+            List<SeasonalPriceSchedule.Rule> rules = randomRules(random, 50);
+            SeasonalPriceSchedule schedule = new SeasonalPriceSchedule(base, rules);
+            for (int i = 0; i < 300; i++) {
+                LocalDate start = START.plusDays(random.nextInt(900) - 100);
+                LocalDate end = start.plusDays(random.nextInt(120));
+                Money total = Money.reais(0);
+                for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1))
+                    total = total.add(expected(base, rules, date));
+                assertEquals(total, schedule.getPrice(start, end));
+            }
+        }
+    }
+
+    @Test
+    public void testStayPrice() {
+        Random random = new Random(11);
+        WeekendPriceSchedule weekend = new WeekendPriceSchedule(110, 90);
+        PriceSchedule generic = weekend::getPrice;
+        for (PriceSchedule base : new PriceSchedule[]{ weekend, generic }) {
+            List<SeasonalPriceSchedule.Rule> rules = randomRules(random, 50);
+            SeasonalPriceSchedule schedule = new SeasonalPriceSchedule(base, rules);
+            for (int i = 0; i < 300; i++) {
+                List<LocalDate> dates = new ArrayList<>();
+                Money total = Money.reais(0);
+                for (int n = 1 + random.nextInt(40); n > 0; n--) {
+                    LocalDate date = START.plusDays(random.nextInt(900) - 100);
+                    for (int run = random.nextInt(5); run >= 0; run--, date = date.plusDays(1)) {
+                        dates.add(date);
+                        total = total.add(expected(base, rules, date));
+                    }
+                }
+                assertEquals(total, schedule.getPrice(StayDates.of(dates)));
+            }
+        }
+    }
+
+    @Test
+    public void testLaterOverrideWins() {
+        List<SeasonalPriceSchedule.Rule> rules = List.of(
+                SeasonalPriceSchedule.Rule.override(START, START.plusDays(90), Money.reais(300)),
+                SeasonalPriceSchedule.Rule.override(START.plusDays(30), START.plusDays(31), Money.reais(500)),
+                SeasonalPriceSchedule.Rule.surcharge(START.plusDays(31), START.plusDays(31), Money.reais(25)));
+        SeasonalPriceSchedule schedule = new SeasonalPriceSchedule(new WeekendPriceSchedule(110, 90), rules);
+        assertEquals(Money.reais(300), schedule.getPrice(START.plusDays(29)));
+        assertEquals(Money.reais(500), schedule.getPrice(START.plusDays(30)));
+        assertEquals(Money.reais(525), schedule.getPrice(START.plusDays(31)));
+        assertEquals(Money.reais(1625), schedule.getPrice(START.plusDays(29), START.plusDays(32)));
+    }
+}
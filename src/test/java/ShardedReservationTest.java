@@ -0,0 +1,127 @@
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class ShardedReservationTest {
+    private static final String[] QUERIES = {
+            "Regular: 16Mar2009(mon), 17Mar2009(tues), 18Mar2009(wed)",
+            "Rewards: 20Mar2009(fri), 21Mar2009(sat), 22Mar2009(sun)",
+            "Regular: 21Mar2009(sat), 28Mar2009(sat)",
+            "Rewards: 26Mar2009(thur)"
+    };
+
+    /**
+     * Few distinct rates and ranks, so that hotels of different shards tie and the tie-break is exercised
+     */
+    private static List<Hotel> hotels(Random random, int size) {
+        List<Hotel> hotels = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            hotels.add(Hotel.withWeekendSchedule("Hotel " + i, 1 + random.nextInt(2),
+                    1 + random.nextInt(5), 1 + random.nextInt(5), 1 + random.nextInt(5), 1 + random.nextInt(5)));
+        }
+        return hotels;
+    }
+
+    @Test
+    public void testMatchesSingleCatalog() {
+        Random random = new Random(3);
+        for (int round = 0; round < 20; round++) {
+            List<Hotel> hotels = hotels(random, 1 + random.nextInt(150));
+            HotelReservation single = new HotelReservation(hotels);
+            try (ShardedReservation byHash = ShardedReservation.ofHotels(hotels, 1 + random.nextInt(6));
+                 ShardedReservation byRegion = ShardedReservation.ofHotels(hotels, hotel -> hotel.getRank())) {
+                for (String query : QUERIES) {
+                    assertEquals(single.getCheapestHotel(query), byHash.getCheapestHotel(query));
+                    assertEquals(single.getCheapestHotel(query), byRegion.getCheapestHotel(query));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSinglePassPartition() {
+        List<Hotel> hotels = hotels(new Random(4), 60);
+        int[] calls = new int[1];
+        try (ShardedReservation byRegion = ShardedReservation.ofHotels(hotels, hotel -> {
+            calls[0]++;
+            return hotel.getName().length();
+        })) {
+            assertEquals(hotels.size(), calls[0]);
+            assertEquals(2, byRegion.getShards().size());
+            HotelReservation single = new HotelReservation(hotels);
+            for (String query : QUERIES) assertEquals(single.getCheapestHotel(query), byRegion.getCheapestHotel(query));
+        }
+    }
+
+    @Test
+    public void testWorkers() throws IOException {
+        List<Hotel> hotels = hotels(new Random(9), 100);
+        HotelReservation single = new HotelReservation(hotels);
+        int shards = 3;
+        List<ShardWorker> workers = new ArrayList<>();
+        int[] ports = new int[shards];
+        try {
+            for (int i = 0; i < shards; i++) {
+                int shard = i;
+                ShardWorker worker = new ShardWorker(
+                        LocalShard.of(hotels, hotel -> ShardedReservation.shardOf(hotel, shards) == shard), 0);
+                worker.start();
+                workers.add(worker);
+                ports[i] = worker.getPort();
+            }
+            try (ShardedReservation remote = ShardedReservation.ofWorkers(ports)) {
+                for (int round = 0; round < 3; round++) {
+                    for (String query : QUERIES)
+                        assertEquals(single.getCheapestHotel(query), remote.getCheapestHotel(query));
+                }
+                assertEquals(single.getRankedQuotes(QUERIES[1], 1).get(0).getPrice(),
+                        remote.getCheapestQuote(QUERIES[1]).getPrice());
+                try {
+                    remote.getCheapestHotel("Premium: 16Mar2009(mon)");
+                    fail("Accepted invalid input");
+                } catch (IllegalStateException expected) {
+                    // rejected before reaching the workers
+                }
+            }
+        } finally {
+            for (ShardWorker worker : workers) worker.close();
+        }
+    }
+
+    @Test
+    public void testEmptyShards() {
+        List<Hotel> hotels = List.of(Hotel.withWeekendSchedule("Lakewood", 3, 110, 90, 80, 80));
+        try (ShardedReservation sharded = ShardedReservation.ofHotels(hotels, 4)) {
+            assertEquals("Lakewood", sharded.getCheapestHotel(QUERIES[0]));
+        }
+        try (ShardedReservation empty = ShardedReservation.ofHotels(List.of(), 2)) {
+            empty.getCheapestHotel(QUERIES[0]);
+            fail("Answered without hotels");
+        } catch (NoSuchElementException expected) {
+            // no shard has hotels
+        }
+    }
+
+    @Test
+    public void testFailingShard() {
+        Shard failing = query -> {
+            throw new IllegalStateException("Shard unavailable");
+        };
+        Shard empty = query -> null;
+        for (List<Shard> shards : List.of(List.of(failing, empty), List.of(empty, failing))) {
+            try (ShardedReservation sharded = new ShardedReservation(shards)) {
+                sharded.getCheapestHotel(QUERIES[0]);
+                fail("Answered despite a failing shard");
+            } catch (IllegalStateException expected) {
+                assertEquals("Shard unavailable", expected.getMessage());
+            }
+        }
+    }
+}
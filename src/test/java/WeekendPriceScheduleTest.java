@@ -0,0 +1,70 @@
+import org.junit.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class WeekendPriceScheduleTest {
+    private static List<LocalDate> stay(LocalDate start, int nights) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (int i = 0; i < nights; i++) dates.add(start.plusDays(i));
+        return dates;
+    }
+
+    @Test
+    public void testHistogram() {
+        DayOfWeekHistogram histogram = DayOfWeekHistogram.of(stay(LocalDate.of(2009, 3, 16), 30));
+        assertEquals(22, histogram.getWeekdays());
+        assertEquals(8, histogram.getWeekends());
+        assertEquals(5, histogram.getCount(DayOfWeek.MONDAY));
+        assertEquals(4, histogram.getCount(DayOfWeek.SUNDAY));
+        int[] epochDays = stay(LocalDate.of(2009, 3, 16), 30).stream().mapToInt(d -> (int) d.toEpochDay()).toArray();
+        assertEquals(histogram, DayOfWeekHistogram.ofEpochDays(epochDays, epochDays.length));
+    }
+
+    @Test
+    public void testHistogramPrice() {
+        WeekendPriceSchedule schedule = new WeekendPriceSchedule(110.5, 90.25);
+        for (int nights = 1; nights <= 30; nights++) {
+            List<LocalDate> dates = stay(LocalDate.of(2009, 3, 20), nights);
+            Money expected = Money.reais(0);
+            for (LocalDate date : dates) expected = expected.add(schedule.getPrice(date));
+            assertEquals(expected, schedule.getPrice(DayOfWeekHistogram.of(dates)));
+            assertEquals(expected, schedule.getPrice(StayDates.of(dates)));
+        }
+    }
+
+    @Test
+    public void testRangePrice() {
+        WeekendPriceSchedule schedule = new WeekendPriceSchedule(110.5, 90.25);
+        PriceSchedule dayByDay = schedule::getPrice;
+        LocalDate start = LocalDate.of(2009, 3, 18);
+        for (int nights = 0; nights <= 400; nights += 7 + nights % 5) {
+            LocalDate end = start.plusDays(nights - 1L);
+            assertEquals(dayByDay.getPrice(start, end), schedule.getPrice(start, end));
+            assertEquals(nights, DayOfWeekHistogram.ofRange(start, end).getTotal());
+        }
+        StayDates stay = StayDates.of(start.plusDays(9), start, start.plusDays(4), start.plusDays(1), start.plusDays(3));
+        assertEquals(Money.reais(110.5 * 3 + 90.25 * 2), dayByDay.getPrice(stay));
+        assertEquals(dayByDay.getPrice(stay), schedule.getPrice(stay));
+    }
+
+    @Test
+    public void testStayDates() {
+        LocalDate start = LocalDate.of(2009, 3, 20);
+        StayDates stay = StayDates.of(start.plusDays(5), start, start.plusDays(1), start.plusDays(1), start.plusDays(2));
+        assertEquals(List.of(start, start.plusDays(1), start.plusDays(1), start.plusDays(2), start.plusDays(5)),
+                stay.toDates());
+        assertEquals(DayOfWeek.FRIDAY.ordinal(), stay.getDayOfWeek(0));
+        assertEquals(DayOfWeek.WEDNESDAY.ordinal(), stay.getDayOfWeek(4));
+        assertEquals(DayOfWeekHistogram.of(stay.toDates()), stay.histogram());
+        assertEquals(2, stay.runEnd(0));
+        assertEquals(4, stay.runEnd(2));
+        assertEquals(5, stay.runEnd(4));
+        assertEquals(stay, StayDates.ofEpochDays(new int[]{ stay.getEpochDay(4), stay.getEpochDay(3),
+                stay.getEpochDay(2), stay.getEpochDay(1), stay.getEpochDay(0), 0 }, 5));
+    }
+}